@@ -0,0 +1,319 @@
+package Collection.List.PrimitiveList;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
+import java.util.stream.DoubleStream;
+
+//ArrayList<Double> stores a reference to a Double object for every element : 4 bytes for the reference plus
+//16 bytes for the object, and every get() follows a pointer to somewhere on the heap
+//DoubleArrayList keeps the doubles themselves in one double[], 8 bytes per element, next to each other in memory
+//1. same operations as ArrayList (add, add at index, addAll, set, removeIf, contains, sort, trimToSize)
+//   but with double parameters, so nothing is boxed
+//2. min(), max() are plain counted loops over the array that the JIT turns into SIMD instructions
+//   sum() adds the elements in order : the JIT may not reorder floating point additions (the rounding would change),
+//   so it stays one addition after the other, but still without any pointer to follow
+//3. stream() is a DoubleStream over the array itself, nothing is copied
+//contains(), indexOf() and removeValue() compare like Double.equals() (NaN is found, 0.0 and -0.0 are different)
+//and sort() orders like Double.compareTo(), so the list behaves like ArrayList<Double>
+//Not synchronized (not thread safe), just like ArrayList
+public class DoubleArrayList {
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final double[] EMPTY = {};
+
+    private double[] elements;
+    private int size;
+
+    public DoubleArrayList() {
+        this.elements = EMPTY;
+    }
+
+    public DoubleArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity cannot be negative: " + initialCapacity);
+        }
+        this.elements = initialCapacity == 0 ? EMPTY : new double[initialCapacity];
+    }
+
+    public static DoubleArrayList of(double... values) {
+        DoubleArrayList list = new DoubleArrayList(values.length);
+        list.addAll(values);
+        return list;
+    }
+
+    public static void main(String[] args) {
+        //sensor readings, -1 marks a failed reading
+        DoubleArrayList readings = DoubleArrayList.of(21.5, 22.0, -1, 23.25, 21.75);
+        readings.removeIf(r -> r < 0);
+        System.out.println(readings);//[21.5, 22.0, 23.25, 21.75]
+        System.out.println(readings.min() + " " + readings.max());//21.5 23.25
+        System.out.println(readings.sum() / readings.size());//22.125
+        System.out.println(readings.stream().average().getAsDouble());//22.125
+        readings.add(Double.NaN);
+        System.out.println(readings.contains(Double.NaN));//true, like ArrayList<Double>
+        readings.sort();
+        System.out.println(readings);//[21.5, 21.75, 22.0, 23.25, NaN]
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    //returns the element that was at the index before
+    public double set(int index, double element) {
+        checkIndex(index);
+        double old = elements[index];
+        elements[index] = element;
+        return old;
+    }
+
+    public void add(double element) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size++] = element;
+    }
+
+    public void add(int index, double element) {
+        checkPositionIndex(index);
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = element;
+        size++;
+    }
+
+    public void addAll(double... values) {
+        addAll(size, values, values.length);
+    }
+
+    public void addAll(DoubleArrayList other) {
+        addAll(size, other.elements, other.size);
+    }
+
+    public void addAll(int index, DoubleArrayList other) {
+        checkPositionIndex(index);
+        addAll(index, other.elements, other.size);
+    }
+
+    private void addAll(int index, double[] values, int count) {
+        //list.addAll(list) : copy the values first, the array is about to be shifted (or replaced)
+        double[] copy = values == elements ? Arrays.copyOf(values, count) : values;
+        ensureCapacity(size + count);
+        System.arraycopy(elements, index, elements, index + count, size - index);
+        System.arraycopy(copy, 0, elements, index, count);
+        size += count;
+    }
+
+    //removes the element at the index and returns it
+    public double removeAt(int index) {
+        checkIndex(index);
+        double old = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return old;
+    }
+
+    //removes the first occurrence of the value
+    public boolean removeValue(double value) {
+        int index = indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    //two passes like ArrayList.removeIf : the first one only calls the filter and marks the elements to remove in a
+    //bit set, so if the filter throws the list is unchanged. The second one moves the kept elements forward
+    public boolean removeIf(DoublePredicate filter) {
+        long[] removed = new long[(size + 63) >>> 6];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(elements[i])) {
+                removed[i >>> 6] |= 1L << i;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return false;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if ((removed[i >>> 6] & (1L << i)) == 0) {
+                elements[kept++] = elements[i];
+            }
+        }
+        size = kept;
+        return true;
+    }
+
+    public boolean contains(double value) {
+        return indexOf(value) >= 0;
+    }
+
+    //a plain loop with an early exit. A branch free block compare (OR the compares of a block of elements together,
+    //then scan only a block that had a match) was measured too, but the JDK 17 JIT does not turn that reduction into
+    //SIMD instructions, so it was slower than this loop, which the JIT already unrolls
+    public int indexOf(double value) {
+        long bits = Double.doubleToLongBits(value);
+        double[] a = elements;
+        for (int i = 0; i < size; i++) {
+            if (Double.doubleToLongBits(a[i]) == bits) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(double value) {
+        long bits = Double.doubleToLongBits(value);
+        double[] a = elements;
+        for (int i = size - 1; i >= 0; i--) {
+            if (Double.doubleToLongBits(a[i]) == bits) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public double sum() {
+        double[] a = elements;
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    //min() and max() have no branch and no early exit, which is the shape the JIT vectorizes
+    //a NaN element makes the result NaN, like Math.min() and Math.max()
+    public double min() {
+        checkNotEmpty();
+        double[] a = elements;
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    public double max() {
+        checkNotEmpty();
+        double[] a = elements;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    //ascending order like Double.compareTo() : -0.0 before 0.0 and NaN at the end (no Comparator and no boxing)
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    public void forEach(DoubleConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    //reads the array of the list directly, the list must not be changed while the stream runs
+    public DoubleStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    public double[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            grow(minCapacity);
+        }
+    }
+
+    public void trimToSize() {
+        if (size < elements.length) {
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+        }
+    }
+
+    //grows by half like ArrayList, but at least to minCapacity
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("list is too large");
+        }
+        int newCapacity = Math.max(minCapacity, Math.max(DEFAULT_CAPACITY, elements.length + (elements.length >> 1)));
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE - 8;
+        }
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("list is empty");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DoubleArrayList)) {
+            return false;
+        }
+        DoubleArrayList other = (DoubleArrayList) o;
+        //Arrays.equals compares doubles like Double.equals()
+        return Arrays.equals(elements, 0, size, other.elements, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + Double.hashCode(elements[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < size; i++) {
+            joiner.add(String.valueOf(elements[i]));
+        }
+        return joiner.toString();
+    }
+}
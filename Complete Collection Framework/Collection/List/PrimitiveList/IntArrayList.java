@@ -0,0 +1,345 @@
+package Collection.List.PrimitiveList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+//ArrayList<Integer> stores a reference to an Integer object for every element : 4 bytes for the reference plus
+//16 bytes for the object (only -128..127 are cached), and every get() follows a pointer to somewhere on the heap
+//IntArrayList keeps the ints themselves in one int[], 4 bytes per element, next to each other in memory
+//1. same operations as ArrayList (add, add at index, addAll, set, removeIf, contains, sort, trimToSize)
+//   but with int parameters, so nothing is boxed
+//2. sum(), min(), max() are plain counted loops over the array that the JIT turns into SIMD instructions
+//   (several ints per instruction), indexOf() and contains() scan the array without any unboxing
+//3. stream() is an IntStream over the array itself, nothing is copied
+//Elements are removed by index with removeAt() and by value with removeValue(), because remove(int) would be ambiguous
+//Not synchronized (not thread safe), just like ArrayList
+public class IntArrayList {
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final int[] EMPTY = {};
+
+    private int[] elements;
+    private int size;
+
+    public IntArrayList() {
+        this.elements = EMPTY;
+    }
+
+    public IntArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity cannot be negative: " + initialCapacity);
+        }
+        this.elements = initialCapacity == 0 ? EMPTY : new int[initialCapacity];
+    }
+
+    public static IntArrayList of(int... values) {
+        IntArrayList list = new IntArrayList(values.length);
+        list.addAll(values);
+        return list;
+    }
+
+    public static void main(String[] args) {
+        //same operations as ArrayListDemo, without a single Integer object
+        IntArrayList list = new IntArrayList();
+        list.add(1);
+        list.add(2);
+        list.add(0, 7);
+        IntArrayList list2 = IntArrayList.of(10, 20);
+        list.addAll(list2);
+        list.addAll(1, list2);
+        System.out.println(list);//[7, 10, 20, 1, 2, 10, 20]
+        System.out.println(list.get(1));//10
+        System.out.println(list.contains(1));//true
+        System.out.println(list.contains(50));//false
+        System.out.println(list.removeAt(2));//20
+        list.removeIf(x -> x == 10);
+        System.out.println(list.removeValue(9));//false
+        list.set(1, 20);
+        list.sort();
+        list.trimToSize();
+        System.out.println(list);//[2, 7, 20, 20]
+        System.out.println(list.stream().map(x -> x * 2).sum());//98
+
+        //10 million ints : about 40 MB here, about 200 MB as ArrayList<Integer>
+        int n = 10_000_000;
+        IntArrayList numbers = new IntArrayList(n);
+        ArrayList<Integer> boxed = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            numbers.add(i % 1000);
+            boxed.add(i % 1000);
+        }
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            long sum = numbers.sum();
+            long primitive = System.nanoTime() - start;
+            start = System.nanoTime();
+            long boxedSum = 0;
+            for (Integer value : boxed) {
+                boxedSum += value;
+            }
+            long boxedTime = System.nanoTime() - start;
+            System.out.println("sum " + sum + " (" + boxedSum + ") IntArrayList " + primitive / 1_000 + " us, ArrayList<Integer> "
+                    + boxedTime / 1_000 + " us");//sum 4995000000 for both
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    //returns the element that was at the index before
+    public int set(int index, int element) {
+        checkIndex(index);
+        int old = elements[index];
+        elements[index] = element;
+        return old;
+    }
+
+    public void add(int element) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size++] = element;
+    }
+
+    public void add(int index, int element) {
+        checkPositionIndex(index);
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = element;
+        size++;
+    }
+
+    public void addAll(int... values) {
+        addAll(size, values, values.length);
+    }
+
+    public void addAll(IntArrayList other) {
+        addAll(size, other.elements, other.size);
+    }
+
+    public void addAll(int index, IntArrayList other) {
+        checkPositionIndex(index);
+        addAll(index, other.elements, other.size);
+    }
+
+    private void addAll(int index, int[] values, int count) {
+        //list.addAll(list) : copy the values first, the array is about to be shifted (or replaced)
+        int[] copy = values == elements ? Arrays.copyOf(values, count) : values;
+        ensureCapacity(size + count);
+        System.arraycopy(elements, index, elements, index + count, size - index);
+        System.arraycopy(copy, 0, elements, index, count);
+        size += count;
+    }
+
+    //removes the element at the index and returns it
+    public int removeAt(int index) {
+        checkIndex(index);
+        int old = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return old;
+    }
+
+    //removes the first occurrence of the value
+    public boolean removeValue(int value) {
+        int index = indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    //two passes like ArrayList.removeIf : the first one only calls the filter and marks the elements to remove in a
+    //bit set, so if the filter throws the list is unchanged. The second one moves the kept elements forward
+    public boolean removeIf(IntPredicate filter) {
+        long[] removed = new long[(size + 63) >>> 6];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(elements[i])) {
+                removed[i >>> 6] |= 1L << i;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return false;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if ((removed[i >>> 6] & (1L << i)) == 0) {
+                elements[kept++] = elements[i];
+            }
+        }
+        size = kept;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    //a plain loop with an early exit. A branch free block compare (OR the compares of a block of elements together,
+    //then scan only a block that had a match) was measured too, but the JDK 17 JIT does not turn that reduction into
+    //SIMD instructions, so it was slower than this loop, which the JIT already unrolls
+    public int indexOf(int value) {
+        int[] a = elements;
+        for (int i = 0; i < size; i++) {
+            if (a[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(int value) {
+        int[] a = elements;
+        for (int i = size - 1; i >= 0; i--) {
+            if (a[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //the loops below have no branch and no early exit, which is the shape the JIT vectorizes
+    public long sum() {
+        int[] a = elements;
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    public int min() {
+        checkNotEmpty();
+        int[] a = elements;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    public int max() {
+        checkNotEmpty();
+        int[] a = elements;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    //ascending order (dual pivot quicksort on the raw array, no Comparator and no boxing)
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    //reads the array of the list directly, the list must not be changed while the stream runs
+    public IntStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            grow(minCapacity);
+        }
+    }
+
+    public void trimToSize() {
+        if (size < elements.length) {
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+        }
+    }
+
+    //grows by half like ArrayList, but at least to minCapacity
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("list is too large");
+        }
+        int newCapacity = Math.max(minCapacity, Math.max(DEFAULT_CAPACITY, elements.length + (elements.length >> 1)));
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE - 8;
+        }
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("list is empty");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntArrayList)) {
+            return false;
+        }
+        IntArrayList other = (IntArrayList) o;
+        return Arrays.equals(elements, 0, size, other.elements, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + elements[i];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < size; i++) {
+            joiner.add(String.valueOf(elements[i]));
+        }
+        return joiner.toString();
+    }
+}
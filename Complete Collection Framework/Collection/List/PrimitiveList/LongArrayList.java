@@ -0,0 +1,315 @@
+package Collection.List.PrimitiveList;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+
+//ArrayList<Long> stores a reference to a Long object for every element : 4 bytes for the reference plus
+//16 bytes for the object, and every get() follows a pointer to somewhere on the heap
+//LongArrayList keeps the longs themselves in one long[], 8 bytes per element, next to each other in memory
+//It is IntArrayList for values that do not fit in an int (timestamps, ids, sizes in bytes):
+//1. same operations as ArrayList (add, add at index, addAll, set, removeIf, contains, sort, trimToSize)
+//   but with long parameters, so nothing is boxed
+//2. sum(), min(), max() are plain counted loops over the array that the JIT turns into SIMD instructions,
+//   sum() wraps around on overflow like any long addition
+//3. stream() is a LongStream over the array itself, nothing is copied
+//Elements are removed by index with removeAt() and by value with removeValue(), because remove(long) would be confusing
+//Not synchronized (not thread safe), just like ArrayList
+public class LongArrayList {
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final long[] EMPTY = {};
+
+    private long[] elements;
+    private int size;
+
+    public LongArrayList() {
+        this.elements = EMPTY;
+    }
+
+    public LongArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity cannot be negative: " + initialCapacity);
+        }
+        this.elements = initialCapacity == 0 ? EMPTY : new long[initialCapacity];
+    }
+
+    public static LongArrayList of(long... values) {
+        LongArrayList list = new LongArrayList(values.length);
+        list.addAll(values);
+        return list;
+    }
+
+    public static void main(String[] args) {
+        //request timestamps in milliseconds, kept without a single Long object
+        LongArrayList timestamps = LongArrayList.of(1_700_000_003_000L, 1_700_000_001_000L, 1_700_000_002_000L);
+        timestamps.add(1_700_000_000_000L);
+        timestamps.sort();
+        System.out.println(timestamps);//[1700000000000, 1700000001000, 1700000002000, 1700000003000]
+        System.out.println(timestamps.max() - timestamps.min());//3000
+        //drop everything older than two seconds before the last request
+        long cutoff = timestamps.max() - 2_000;
+        timestamps.removeIf(t -> t < cutoff);
+        System.out.println(timestamps.size());//3
+        System.out.println(timestamps.stream().filter(t -> t % 2_000 == 0).count());//1
+        System.out.println(timestamps.indexOf(1_700_000_003_000L));//2
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    //returns the element that was at the index before
+    public long set(int index, long element) {
+        checkIndex(index);
+        long old = elements[index];
+        elements[index] = element;
+        return old;
+    }
+
+    public void add(long element) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size++] = element;
+    }
+
+    public void add(int index, long element) {
+        checkPositionIndex(index);
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = element;
+        size++;
+    }
+
+    public void addAll(long... values) {
+        addAll(size, values, values.length);
+    }
+
+    public void addAll(LongArrayList other) {
+        addAll(size, other.elements, other.size);
+    }
+
+    public void addAll(int index, LongArrayList other) {
+        checkPositionIndex(index);
+        addAll(index, other.elements, other.size);
+    }
+
+    private void addAll(int index, long[] values, int count) {
+        //list.addAll(list) : copy the values first, the array is about to be shifted (or replaced)
+        long[] copy = values == elements ? Arrays.copyOf(values, count) : values;
+        ensureCapacity(size + count);
+        System.arraycopy(elements, index, elements, index + count, size - index);
+        System.arraycopy(copy, 0, elements, index, count);
+        size += count;
+    }
+
+    //removes the element at the index and returns it
+    public long removeAt(int index) {
+        checkIndex(index);
+        long old = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return old;
+    }
+
+    //removes the first occurrence of the value
+    public boolean removeValue(long value) {
+        int index = indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    //two passes like ArrayList.removeIf : the first one only calls the filter and marks the elements to remove in a
+    //bit set, so if the filter throws the list is unchanged. The second one moves the kept elements forward
+    public boolean removeIf(LongPredicate filter) {
+        long[] removed = new long[(size + 63) >>> 6];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(elements[i])) {
+                removed[i >>> 6] |= 1L << i;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return false;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if ((removed[i >>> 6] & (1L << i)) == 0) {
+                elements[kept++] = elements[i];
+            }
+        }
+        size = kept;
+        return true;
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    //a plain loop with an early exit. A branch free block compare (OR the compares of a block of elements together,
+    //then scan only a block that had a match) was measured too, but the JDK 17 JIT does not turn that reduction into
+    //SIMD instructions, so it was slower than this loop, which the JIT already unrolls
+    public int indexOf(long value) {
+        long[] a = elements;
+        for (int i = 0; i < size; i++) {
+            if (a[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(long value) {
+        long[] a = elements;
+        for (int i = size - 1; i >= 0; i--) {
+            if (a[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //the loops below have no branch and no early exit, which is the shape the JIT vectorizes
+    public long sum() {
+        long[] a = elements;
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    public long min() {
+        checkNotEmpty();
+        long[] a = elements;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    public long max() {
+        checkNotEmpty();
+        long[] a = elements;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    //ascending order (dual pivot quicksort on the raw array, no Comparator and no boxing)
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    //reads the array of the list directly, the list must not be changed while the stream runs
+    public LongStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            grow(minCapacity);
+        }
+    }
+
+    public void trimToSize() {
+        if (size < elements.length) {
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+        }
+    }
+
+    //grows by half like ArrayList, but at least to minCapacity
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("list is too large");
+        }
+        int newCapacity = Math.max(minCapacity, Math.max(DEFAULT_CAPACITY, elements.length + (elements.length >> 1)));
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE - 8;
+        }
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("list is empty");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LongArrayList)) {
+            return false;
+        }
+        LongArrayList other = (LongArrayList) o;
+        return Arrays.equals(elements, 0, size, other.elements, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + Long.hashCode(elements[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < size; i++) {
+            joiner.add(String.valueOf(elements[i]));
+        }
+        return joiner.toString();
+    }
+}
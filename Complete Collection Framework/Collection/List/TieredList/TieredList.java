@@ -0,0 +1,434 @@
+package Collection.List.TieredList;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+//ArrayList.add(0, e) and remove(0) move every element of the backing array by one slot, which is O(n)
+//LinkedList avoids the move, but needs a node object per element and get(index) has to walk the list
+//TieredList (a "tiered vector") splits the elements into blocks of B slots, where B is about sqrt(n):
+//1. every block is a small ring buffer, so an element can be added or removed at both ends of a block in O(1)
+//2. all blocks are full except the last one, so get(index) is still index / B and index % B, two array reads
+//3. add(index, e) makes room inside one block (moving at most B / 2 elements), then the last element of that block
+//   moves to the front of the next block, whose last element moves to the next block, ... one move per block
+//   remove(index) does the same in the other direction. Both are O(B + n / B) = O(sqrt(n))
+//4. B is doubled (or halved) when the number of blocks gets too far away from B, which rebuilds the list in O(n)
+//Like ArrayList it is RandomAccess, allows null and is not synchronized (not thread safe)
+public class TieredList<E> extends AbstractList<E> implements RandomAccess {
+    private static final int MIN_SHIFT = 4;
+
+    private Object[][] blocks;
+    //start of the ring buffer in every block
+    private int[] heads;
+    private int blockCount;
+    //B = 1 << shift
+    private int shift;
+    private int mask;
+    private int size;
+
+    public TieredList() {
+        init(MIN_SHIFT, 0);
+    }
+
+    public TieredList(Collection<? extends E> c) {
+        fill(c.toArray());
+    }
+
+    public static void main(String[] args) {
+        //same operations as ArrayListDemo
+        List<Integer> list = new TieredList<>();
+        list.add(1);
+        list.add(2);
+        list.add(0, 7);
+        List<Integer> list2 = List.of(10, 20);
+        list.addAll(list2);
+        list.addAll(1, list2);
+        System.out.println(list);//[7, 10, 20, 1, 2, 10, 20]
+        System.out.println(list.get(3));//1
+        System.out.println(list.remove(2));//20
+        list.removeIf(x -> x == 10);
+        list.set(1, 20);
+        System.out.println(list);//[7, 20, 2, 20]
+
+        //editor style workload : insert and delete at random places of a 10 million element list
+        //(run it with -Xmx2g, both lists hold the same Integer objects)
+        int n = 10_000_000;
+        Integer[] values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        List<Integer> array = new ArrayList<>(Arrays.asList(values));
+        List<Integer> tiered = new TieredList<>(Arrays.asList(values));
+        for (List<Integer> target : List.of(array, tiered, array, tiered)) {
+            Random random = new Random(42);
+            long start = System.nanoTime();
+            for (int i = 0; i < 1_000; i++) {
+                target.add(random.nextInt(target.size()), -i);
+                target.remove(random.nextInt(target.size()));
+            }
+            long edits = System.nanoTime() - start;
+            start = System.nanoTime();
+            long sum = 0;
+            for (Integer value : target) {
+                sum += value;
+            }
+            long scan = System.nanoTime() - start;
+            System.out.println(target.getClass().getSimpleName() + " : 1000 inserts and removes " + edits / 1_000_000
+                    + " ms, full scan " + scan / 1_000_000 + " ms");
+        }
+        System.out.println(array.equals(tiered));//true
+    }
+
+    //empty list with blocks of 1 << shift slots, room for blockCapacity blocks
+    private void init(int shift, int blockCapacity) {
+        this.shift = shift;
+        this.mask = (1 << shift) - 1;
+        this.blocks = new Object[Math.max(4, blockCapacity)][];
+        this.heads = new int[blocks.length];
+        this.blockCount = 0;
+        this.size = 0;
+    }
+
+    //replaces the content with the elements, picking B for their number
+    private void fill(Object[] elements) {
+        int n = elements.length;
+        int newShift = MIN_SHIFT;
+        //smallest B with B * B >= n : between B / 2 and B blocks after a rebuild, so that add() rebuilds
+        //again only after the list has doubled (2 * B blocks) and remove() after it has shrunk a lot (B / 8 blocks)
+        while ((1L << (2 * newShift)) < n) {
+            newShift++;
+        }
+        int blockSize = 1 << newShift;
+        init(newShift, (n + blockSize - 1) / blockSize + 1);
+        for (int from = 0; from < n; from += blockSize) {
+            Object[] block = new Object[blockSize];
+            System.arraycopy(elements, from, block, 0, Math.min(blockSize, n - from));
+            blocks[blockCount++] = block;
+        }
+        size = n;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        int b = index >>> shift;
+        return (E) blocks[b][(heads[b] + index) & mask];
+    }
+
+    @Override
+    public E set(int index, E element) {
+        Objects.checkIndex(index, size);
+        int b = index >>> shift;
+        Object[] block = blocks[b];
+        int slot = (heads[b] + index) & mask;
+        @SuppressWarnings("unchecked")
+        E old = (E) block[slot];
+        block[slot] = element;
+        return old;
+    }
+
+    @Override
+    public boolean add(E element) {
+        add(size, element);
+        return true;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        Objects.checkIndex(index, size + 1);
+        if (size == blockCount << shift) {
+            if (blockCount >= 2 << shift) {
+                fill(toArray());
+            }
+            if (size == blockCount << shift) {
+                addBlock();
+            }
+        }
+        int b = index >>> shift;
+        int last = blockCount - 1;
+        if (b == last) {
+            insertInBlock(b, lastLength(), index & mask, element);
+        } else {
+            //block b is full : its last element is carried over to the next block, and so on until the last block
+            Object carry = popBack(b, mask + 1);
+            insertInBlock(b, mask, index & mask, element);
+            for (int k = b + 1; k < last; k++) {
+                Object next = popBack(k, mask + 1);
+                pushFront(k, carry);
+                carry = next;
+            }
+            pushFront(last, carry);
+        }
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public E remove(int index) {
+        Objects.checkIndex(index, size);
+        int b = index >>> shift;
+        int last = blockCount - 1;
+        Object old;
+        if (b == last) {
+            old = removeFromBlock(b, lastLength(), index & mask);
+        } else {
+            //the hole in block b is filled with the first element of the next block, and so on until the last block
+            old = removeFromBlock(b, mask + 1, index & mask);
+            for (int k = b; k < last; k++) {
+                pushBack(k, mask, popFront(k + 1));
+            }
+        }
+        size--;
+        modCount++;
+        if (size == last << shift) {
+            //the last block is empty now
+            blocks[last] = null;
+            blockCount--;
+            if (shift > MIN_SHIFT && blockCount < (1 << shift) / 8) {
+                fill(toArray());
+            }
+        }
+        @SuppressWarnings("unchecked")
+        E removed = (E) old;
+        return removed;
+    }
+
+    //inserting many elements at once is cheaper as one rebuild than as one add() per element
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c) {
+        Objects.checkIndex(index, size + 1);
+        Object[] added = c.toArray();
+        if (added.length == 0) {
+            return false;
+        }
+        if (added.length <= mask + 1) {
+            for (Object element : added) {
+                @SuppressWarnings("unchecked")
+                E e = (E) element;
+                add(index++, e);
+            }
+            return true;
+        }
+        Object[] all = new Object[size + added.length];
+        copyTo(0, index, all, 0);
+        System.arraycopy(added, 0, all, index, added.length);
+        copyTo(index, size, all, index + added.length);
+        fill(all);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        return addAll(size, c);
+    }
+
+    //used by clear() and subList(from, to).clear()
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        int count = toIndex - fromIndex;
+        if (count <= mask + 1) {
+            for (int i = 0; i < count; i++) {
+                remove(fromIndex);
+            }
+            return;
+        }
+        Object[] rest = new Object[size - count];
+        copyTo(0, fromIndex, rest, 0);
+        copyTo(toIndex, size, rest, fromIndex);
+        fill(rest);
+        modCount++;
+    }
+
+    //AbstractList removes the matches one by one through the iterator, O(sqrt(n)) per removed element,
+    //here all of them go in one O(n) pass and one rebuild
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+        return removeMatching(filter, true);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeMatching(c::contains, true);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeMatching(c::contains, false);
+    }
+
+    //removes the elements for which filter returns remove
+    //the filter is called for every element before anything is removed, so if it throws the list stays as it was
+    private boolean removeMatching(Predicate<? super E> filter, boolean remove) {
+        int expectedModCount = modCount;
+        Object[] elements = toArray();
+        boolean[] removed = new boolean[elements.length];
+        int kept = 0;
+        for (int i = 0; i < elements.length; i++) {
+            @SuppressWarnings("unchecked")
+            E element = (E) elements[i];
+            removed[i] = filter.test(element) == remove;
+            if (!removed[i]) {
+                kept++;
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (kept == elements.length) {
+            return false;
+        }
+        Object[] rest = new Object[kept];
+        kept = 0;
+        for (int i = 0; i < elements.length; i++) {
+            if (!removed[i]) {
+                rest[kept++] = elements[i];
+            }
+        }
+        fill(rest);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        init(MIN_SHIFT, 0);
+        modCount++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        copyTo(0, size, result, 0);
+        return result;
+    }
+
+    //walks the blocks directly instead of calling get() for every index
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (int b = 0; b < blockCount; b++) {
+            Object[] block = blocks[b];
+            int head = heads[b];
+            int length = b == blockCount - 1 ? lastLength() : mask + 1;
+            for (int i = 0; i < length; i++) {
+                @SuppressWarnings("unchecked")
+                E element = (E) block[(head + i) & mask];
+                action.accept(element);
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    //copies the elements from .. to - 1 into dest, one or two arraycopy calls per block
+    private void copyTo(int from, int to, Object[] dest, int destPos) {
+        while (from < to) {
+            int b = from >>> shift;
+            int offset = from & mask;
+            int count = Math.min(to - from, mask + 1 - offset);
+            int start = (heads[b] + offset) & mask;
+            int firstPart = Math.min(count, mask + 1 - start);
+            System.arraycopy(blocks[b], start, dest, destPos, firstPart);
+            System.arraycopy(blocks[b], 0, dest, destPos + firstPart, count - firstPart);
+            from += count;
+            destPos += count;
+        }
+    }
+
+    private int lastLength() {
+        return size - ((blockCount - 1) << shift);
+    }
+
+    private void addBlock() {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blocks.length * 2);
+            heads = Arrays.copyOf(heads, heads.length * 2);
+        }
+        blocks[blockCount] = new Object[mask + 1];
+        heads[blockCount] = 0;
+        blockCount++;
+    }
+
+    //inserts at offset into a block holding length < B elements, moving whichever side of the offset is shorter
+    private void insertInBlock(int b, int length, int offset, Object element) {
+        Object[] block = blocks[b];
+        int head = heads[b];
+        if (offset < length - offset) {
+            head = (head - 1) & mask;
+            for (int i = 0; i < offset; i++) {
+                block[(head + i) & mask] = block[(head + i + 1) & mask];
+            }
+            heads[b] = head;
+        } else {
+            for (int i = length; i > offset; i--) {
+                block[(head + i) & mask] = block[(head + i - 1) & mask];
+            }
+        }
+        block[(head + offset) & mask] = element;
+    }
+
+    //removes the element at offset from a block holding length elements, closing the gap from the shorter side
+    private Object removeFromBlock(int b, int length, int offset) {
+        Object[] block = blocks[b];
+        int head = heads[b];
+        Object old = block[(head + offset) & mask];
+        if (offset < length - 1 - offset) {
+            for (int i = offset; i > 0; i--) {
+                block[(head + i) & mask] = block[(head + i - 1) & mask];
+            }
+            block[head] = null;
+            heads[b] = (head + 1) & mask;
+        } else {
+            for (int i = offset; i < length - 1; i++) {
+                block[(head + i) & mask] = block[(head + i + 1) & mask];
+            }
+            block[(head + length - 1) & mask] = null;
+        }
+        return old;
+    }
+
+    private Object popBack(int b, int length) {
+        int slot = (heads[b] + length - 1) & mask;
+        Object element = blocks[b][slot];
+        blocks[b][slot] = null;
+        return element;
+    }
+
+    private void pushFront(int b, Object element) {
+        int head = (heads[b] - 1) & mask;
+        blocks[b][head] = element;
+        heads[b] = head;
+    }
+
+    private Object popFront(int b) {
+        int head = heads[b];
+        Object element = blocks[b][head];
+        blocks[b][head] = null;
+        heads[b] = (head + 1) & mask;
+        return element;
+    }
+
+    private void pushBack(int b, int length, Object element) {
+        blocks[b][(heads[b] + length) & mask] = element;
+    }
+}
@@ -0,0 +1,224 @@
+package Collection.Map.Concurrent.ConcurrentHashMap;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+//Counting with map.merge(word, 1, Integer::sum) locks the bin of the key and replaces the boxed count on every call,
+//so when many threads count the same popular keys they all wait on the same few bins
+//ConcurrentCounterMap keeps one LongAdder per key instead:
+//1. the map is only written when a key is seen for the first time, after that increment() is a get() and an add()
+//2. a LongAdder starts as a single long and splits into one cell per contending thread only when threads collide,
+//   so a hot key is counted on several cache lines in parallel and a cold key stays small
+//3. get() sums the cells, so reading a count is slower than writing one (fine for counters, which are read rarely)
+//heavyHitters(capacity) is a bounded mode for streams with too many distinct keys to keep (Space-Saving) :
+//only about capacity keys are counted, and when the map is full the least counted quarter is dropped at once
+//A key that comes back later starts from the largest dropped count, so counts are never too small
+//and overcount by at most error(key). The frequent keys stay in the map with almost exact counts
+//Increments that race with remove() (or with an eviction) of the same key can be lost. Null keys are not allowed
+public class ConcurrentCounterMap<K> {
+    private final ConcurrentHashMap<K, Counter> counters = new ConcurrentHashMap<>();
+    //Integer.MAX_VALUE for exact counting
+    private final int capacity;
+    private final Object evictionLock = new Object();
+    //largest count evicted so far, where a key that is counted again starts
+    private volatile long floor;
+
+    //a LongAdder that remembers how much it may overcount (the floor at the time the key was admitted)
+    private static final class Counter extends LongAdder {
+        private static final long serialVersionUID = 1L;
+
+        final long error;
+
+        Counter(long error) {
+            this.error = error;
+            add(error);
+        }
+    }
+
+    public ConcurrentCounterMap() {
+        this.capacity = Integer.MAX_VALUE;
+    }
+
+    private ConcurrentCounterMap(int capacity) {
+        if (capacity < 4) {
+            throw new IllegalArgumentException("capacity must be at least 4: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    //approximate top keys of an unbounded stream with at most capacity counters
+    public static <K> ConcurrentCounterMap<K> heavyHitters(int capacity) {
+        return new ConcurrentCounterMap<>(capacity);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ConcurrentCounterMap<String> words = new ConcurrentCounterMap<>();
+        for (String word : "hello world hello java world hello".split(" ")) {
+            words.increment(word);
+        }
+        System.out.println(words.get("hello"));//3
+        System.out.println(words.topK(2));//[hello=3, world=2]
+
+        //every thread counts the same 8 hot keys, first with merge() then with the counter map
+        //the difference grows with the number of cores, with merge() the throughput stops growing after a few threads
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int perThread = 2_000_000;
+        String[] hot = {"GET /", "GET /login", "POST /cart", "GET /search", "GET /item", "POST /pay", "GET /help", "GET /faq"};
+        for (int round = 0; round < 3; round++) {
+            ConcurrentHashMap<String, Integer> merged = new ConcurrentHashMap<>();
+            long mergeTime = run(threads, () -> {
+                for (int i = 0; i < perThread; i++) {
+                    merged.merge(hot[i & 7], 1, Integer::sum);
+                }
+            });
+            ConcurrentCounterMap<String> counted = new ConcurrentCounterMap<>();
+            long counterTime = run(threads, () -> {
+                for (int i = 0; i < perThread; i++) {
+                    counted.increment(hot[i & 7]);
+                }
+            });
+            System.out.println(threads + " threads, merge() " + mergeTime + " ms, ConcurrentCounterMap " + counterTime + " ms");
+            System.out.println(counted.total() == (long) threads * perThread);//true
+        }
+
+        //a million page views over 100 000 pages, pages 0..4 are popular, only 1000 counters are kept
+        ConcurrentCounterMap<Integer> pages = ConcurrentCounterMap.heavyHitters(1000);
+        for (int i = 0; i < 1_000_000; i++) {
+            int page = i % 10 < 5 ? i % 5 : ThreadLocalRandom.current().nextInt(100_000);
+            pages.increment(page);
+        }
+        System.out.println(pages.size() <= 1000);//true
+        System.out.println(pages.topK(5));//pages 0..4 with about 100000 views each
+
+        //every key seen once, so all counts are tied : the eviction still drops only a quarter of the keys
+        ConcurrentCounterMap<Integer> once = ConcurrentCounterMap.heavyHitters(1000);
+        for (int i = 0; i <= 1000; i++) {
+            once.increment(i);
+        }
+        System.out.println(once.size());//751, 1000 keys minus the 250 evicted plus the new one
+    }
+
+    private static long run(int threads, Runnable task) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(task);
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    public void increment(K key) {
+        add(key, 1);
+    }
+
+    public void add(K key, long delta) {
+        if (delta < 0 && capacity != Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("heavy hitters can only count up: " + delta);
+        }
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = newCounter(Objects.requireNonNull(key));
+        }
+        counter.add(delta);
+    }
+
+    private Counter newCounter(K key) {
+        if (capacity == Integer.MAX_VALUE) {
+            return counters.computeIfAbsent(key, k -> new Counter(0));
+        }
+        synchronized (evictionLock) {
+            Counter counter = counters.get(key);
+            if (counter == null) {
+                if (counters.size() >= capacity) {
+                    evict();
+                }
+                counter = new Counter(floor);
+                counters.put(key, counter);
+            }
+            return counter;
+        }
+    }
+
+    //drops the least counted quarter of the keys, so the cost of finding them is shared by capacity / 4 new keys
+    //exactly a quarter : removing every key with a count <= the count of the quarter would also drop all keys tied with it,
+    //and when most keys have the same count (all seen once, for example) that would empty the whole map
+    private void evict() {
+        List<Map.Entry<K, Long>> entries = new ArrayList<>(counters.size());
+        for (Map.Entry<K, Counter> entry : counters.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().sum()));
+        }
+        entries.sort(Map.Entry.comparingByValue());
+        int evicted = Math.max(1, entries.size() / 4);
+        long largest = floor;
+        for (Map.Entry<K, Long> entry : entries.subList(0, evicted)) {
+            counters.remove(entry.getKey());
+            largest = Math.max(largest, entry.getValue());
+        }
+        floor = largest;
+    }
+
+    //current count of the key, 0 if it is not counted (in heavy hitters mode an upper bound of the real count)
+    public long get(K key) {
+        Counter counter = counters.get(key);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    //how much get(key) can be above the real count, always 0 for exact counting
+    public long error(K key) {
+        Counter counter = counters.get(key);
+        return counter == null ? 0 : counter.error;
+    }
+
+    public long remove(K key) {
+        Counter counter = counters.remove(key);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    //sum of all counts
+    public long total() {
+        long total = 0;
+        for (Counter counter : counters.values()) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    //the k keys with the highest counts, highest first
+    public List<Map.Entry<K, Long>> topK(int k) {
+        List<Map.Entry<K, Long>> entries = new ArrayList<>(counters.size());
+        for (Map.Entry<K, Counter> entry : counters.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().sum()));
+        }
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        return entries.subList(0, Math.min(k, entries.size()));
+    }
+
+    //copy of all counts, every counter is read once but not all at the same instant
+    public Map<K, Long> snapshot() {
+        Map<K, Long> copy = new HashMap<>();
+        for (Map.Entry<K, Counter> entry : counters.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().sum());
+        }
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,555 @@
+package Collection.Map.Concurrent.ConcurrentSkipListMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+//ConcurrentSkipListMap has one node (plus index nodes) per key, so a range scan follows one pointer per entry
+//and subMap().entrySet() creates a new entry object for every element it hands out
+//ChunkedSkipListMap keeps the keys in sorted chunks of up to 64 keys, and the skip list only indexes the chunks:
+//1. a chunk is two small immutable arrays (keys and values), a write copies the chunk and swaps it in the index
+//2. readers never lock : they find the chunk with one floorEntry() on the index and binary search inside it
+//3. cursor() scans a range in batches : next(keys, values) copies whole runs of a chunk into the caller's arrays,
+//   so a time series range read is a few arraycopy calls per 64 entries instead of 64 node hops
+//Writes are serialized by one lock (fine for time series, which are mostly appended by one writer)
+//It is a ConcurrentMap : putIfAbsent, replace, compute, merge ... check and write under the same write lock, so they
+//are atomic, and their functions run under that lock (keep them short, and they must not change this map)
+//It is not a ConcurrentNavigableMap : there is no subMap, headMap, tailMap, firstKey or ceilingEntry,
+//ranges are read with cursor(from, to) instead
+//Iteration and cursors are weakly consistent like ConcurrentSkipListMap : never an exception, every key at most once,
+//in ascending order. Null keys and null values are not allowed
+public class ChunkedSkipListMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    static final int CHUNK_CAPACITY = 64;
+    //after a remove, a chunk smaller than this is merged with the next chunk if they fit together
+    private static final int MERGE_THRESHOLD = CHUNK_CAPACITY / 4;
+
+    //chunks by the lower bound of their keys : every key of a chunk is >= its index key and < the next index key
+    private final ConcurrentSkipListMap<K, Chunk> index;
+    private final Comparator<? super K> comparator;
+    private final Object writeLock = new Object();
+    //only written while holding writeLock
+    private volatile int size;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    //never changed after it is created, so a reader that still holds an old chunk sees a consistent snapshot
+    private static final class Chunk {
+        final Object[] keys;
+        final Object[] values;
+
+        Chunk(Object[] keys, Object[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+    }
+
+    public ChunkedSkipListMap() {
+        this(null);
+    }
+
+    public ChunkedSkipListMap(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+        this.index = new ConcurrentSkipListMap<>(comparator);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ChunkedSkipListMap<Long, Double> prices = new ChunkedSkipListMap<>();
+        prices.put(1000L, 10.5);
+        prices.put(3000L, 11.0);
+        prices.put(2000L, 10.75);
+        System.out.println(prices);//{1000=10.5, 2000=10.75, 3000=11.0}
+        System.out.println(prices.get(2000L));//10.75
+
+        //one writer keeps appending ticks while a reader scans the last 1000 seconds in batches
+        ChunkedSkipListMap<Long, Double> ticks = new ChunkedSkipListMap<>();
+        ConcurrentSkipListMap<Long, Double> skipList = new ConcurrentSkipListMap<>();
+        int points = 1_000_000;
+        for (long t = 0; t < points; t++) {
+            ticks.put(t, (double) (t % 100));
+            skipList.put(t, (double) (t % 100));
+        }
+        Thread writer = new Thread(() -> {
+            for (long t = points; t < points + 100_000; t++) {
+                ticks.put(t, (double) (t % 100));
+            }
+        });
+        writer.start();
+        Long[] keys = new Long[1024];
+        Double[] values = new Double[1024];
+        double sum = 0;
+        ChunkedSkipListMap<Long, Double>.Cursor cursor = ticks.cursor(0L, (long) points);
+        for (int count; (count = cursor.next(keys, values)) > 0; ) {
+            for (int i = 0; i < count; i++) {
+                sum += values[i];
+            }
+        }
+        writer.join();
+        System.out.println(sum);//4.95E7, the appended ticks are outside of the range
+        System.out.println(ticks.size());//1100000
+
+        //full range read : batches vs walking the skip list node by node
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            sum = 0;
+            cursor = ticks.cursor(0L, (long) points);
+            for (int count; (count = cursor.next(keys, values)) > 0; ) {
+                for (int i = 0; i < count; i++) {
+                    sum += values[i];
+                }
+            }
+            long batched = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (Double value : skipList.subMap(0L, (long) points).values()) {
+                sum += value;
+            }
+            long nodeByNode = System.nanoTime() - start;
+            System.out.println("cursor " + batched / 1_000_000 + " ms, ConcurrentSkipListMap " + nodeByNode / 1_000_000 + " ms");
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public V get(Object key) {
+        Map.Entry<K, Chunk> entry = chunkOf(key);
+        if (entry == null) {
+            return null;
+        }
+        Chunk chunk = entry.getValue();
+        int i = search(chunk.keys, key);
+        @SuppressWarnings("unchecked")
+        V value = i >= 0 ? (V) chunk.values[i] : null;
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Map.Entry<K, Chunk> entry = chunkOf(key);
+        return entry != null && search(entry.getValue().keys, key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map.Entry<K, Chunk> chunkOf(Object key) {
+        //throws NullPointerException for a null key and ClassCastException for a key that cannot be compared
+        return index.floorEntry((K) key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        synchronized (writeLock) {
+            Map.Entry<K, Chunk> entry = index.floorEntry(key);
+            if (entry == null) {
+                //smaller than every key, goes to the first chunk which gets a new lower bound
+                entry = index.firstEntry();
+                if (entry == null) {
+                    index.put(key, new Chunk(new Object[]{key}, new Object[]{value}));
+                    size = 1;
+                    return null;
+                }
+            }
+            K low = entry.getKey();
+            Chunk chunk = entry.getValue();
+            int i = search(chunk.keys, key);
+            if (i >= 0) {
+                Object[] values = chunk.values.clone();
+                @SuppressWarnings("unchecked")
+                V old = (V) values[i];
+                values[i] = value;
+                index.put(low, new Chunk(chunk.keys, values));
+                return old;
+            }
+            int at = -i - 1;
+            int length = chunk.keys.length;
+            if (length == CHUNK_CAPACITY && at == length && index.higherKey(low) == null) {
+                //appending after the last key of a full last chunk starts a new chunk and leaves the full one as it is
+                index.put(key, new Chunk(new Object[]{key}, new Object[]{value}));
+                size = size + 1;
+                return null;
+            }
+            Object[] keys = new Object[length + 1];
+            Object[] values = new Object[length + 1];
+            System.arraycopy(chunk.keys, 0, keys, 0, at);
+            System.arraycopy(chunk.values, 0, values, 0, at);
+            keys[at] = key;
+            values[at] = value;
+            System.arraycopy(chunk.keys, at, keys, at + 1, length - at);
+            System.arraycopy(chunk.values, at, values, at + 1, length - at);
+            K newLow = at == 0 && compare(key, low) < 0 ? key : low;
+            if (length < CHUNK_CAPACITY) {
+                swapChunk(low, newLow, new Chunk(keys, values));
+            } else {
+                int split = (length + 1) / 2;
+                Chunk upper = new Chunk(Arrays.copyOfRange(keys, split, length + 1),
+                        Arrays.copyOfRange(values, split, length + 1));
+                //the upper half is published first, so a reader always finds every key either in the old chunk
+                //or in the new ones
+                @SuppressWarnings("unchecked")
+                K upperLow = (K) upper.keys[0];
+                index.put(upperLow, upper);
+                swapChunk(low, newLow, new Chunk(Arrays.copyOf(keys, split), Arrays.copyOf(values, split)));
+            }
+            size = size + 1;
+            return null;
+        }
+    }
+
+    //stores the chunk under newLow and drops the old index key if it changed
+    private void swapChunk(K low, K newLow, Chunk chunk) {
+        index.put(newLow, chunk);
+        if (newLow != low) {
+            index.remove(low);
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        synchronized (writeLock) {
+            Map.Entry<K, Chunk> entry = chunkOf(key);
+            if (entry == null) {
+                return null;
+            }
+            K low = entry.getKey();
+            Chunk chunk = entry.getValue();
+            int i = search(chunk.keys, key);
+            if (i < 0) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            V old = (V) chunk.values[i];
+            int length = chunk.keys.length - 1;
+            if (length == 0) {
+                index.remove(low);
+            } else {
+                //the index key stays the same, it is still a lower bound of the remaining keys
+                Map.Entry<K, Chunk> next = length < MERGE_THRESHOLD ? index.higherEntry(low) : null;
+                int nextLength = next == null ? 0 : next.getValue().keys.length;
+                if (nextLength > 0 && length + nextLength > CHUNK_CAPACITY) {
+                    nextLength = 0;
+                    next = null;
+                }
+                Object[] keys = new Object[length + nextLength];
+                Object[] values = new Object[length + nextLength];
+                System.arraycopy(chunk.keys, 0, keys, 0, i);
+                System.arraycopy(chunk.values, 0, values, 0, i);
+                System.arraycopy(chunk.keys, i + 1, keys, i, length - i);
+                System.arraycopy(chunk.values, i + 1, values, i, length - i);
+                if (next != null) {
+                    System.arraycopy(next.getValue().keys, 0, keys, length, nextLength);
+                    System.arraycopy(next.getValue().values, 0, values, length, nextLength);
+                }
+                //the merged chunk is published before the next chunk is dropped, same reason as in put()
+                index.put(low, new Chunk(keys, values));
+                if (next != null) {
+                    index.remove(next.getKey());
+                }
+            }
+            size = size - 1;
+            return old;
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (writeLock) {
+            index.clear();
+            size = 0;
+        }
+    }
+
+    //the inherited versions of the methods below do get() and put() separately, another writer could come in between
+    //here the read and the write happen under writeLock (which is reentrant, so they can call put() and remove())
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        synchronized (writeLock) {
+            V old = get(key);
+            return old != null ? old : put(key, value);
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        Objects.requireNonNull(key);
+        if (value == null) {
+            return false;
+        }
+        synchronized (writeLock) {
+            if (!value.equals(get(key))) {
+                return false;
+            }
+            remove(key);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        synchronized (writeLock) {
+            if (!oldValue.equals(get(key))) {
+                return false;
+            }
+            put(key, newValue);
+            return true;
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value);
+        synchronized (writeLock) {
+            return get(key) != null ? put(key, value) : null;
+        }
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        //a key that is already there is found without the lock
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        synchronized (writeLock) {
+            value = get(key);
+            if (value == null) {
+                value = mappingFunction.apply(key);
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            return value;
+        }
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        synchronized (writeLock) {
+            V old = get(key);
+            if (old == null) {
+                return null;
+            }
+            return store(key, remappingFunction.apply(key, old));
+        }
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        synchronized (writeLock) {
+            return store(key, remappingFunction.apply(key, get(key)));
+        }
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        synchronized (writeLock) {
+            V old = get(key);
+            return store(key, old == null ? value : remappingFunction.apply(old, value));
+        }
+    }
+
+    //result of compute() and merge() : null removes the key, anything else is put, called under writeLock
+    private V store(K key, V value) {
+        if (value == null) {
+            remove(key);
+        } else {
+            put(key, value);
+        }
+        return value;
+    }
+
+    //all entries in ascending order
+    public Cursor cursor() {
+        return new Cursor(null, false, null, false);
+    }
+
+    //entries with from <= key < to, the usual half open range of a time window
+    public Cursor cursor(K from, K to) {
+        return cursor(from, true, to, false);
+    }
+
+    public Cursor cursor(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        Objects.requireNonNull(from);
+        Objects.requireNonNull(to);
+        if (compare(from, to) > 0) {
+            throw new IllegalArgumentException("from is greater than to");
+        }
+        return new Cursor(from, fromInclusive, to, toInclusive);
+    }
+
+    //Hands out the entries of a range in batches. It holds one chunk at a time, and when that chunk is used up it
+    //looks up the chunk after the last key it returned, so chunks that were split or merged in the meantime
+    //are neither skipped nor read twice. One cursor must not be shared between threads
+    public final class Cursor {
+        private final K from;
+        private final boolean fromInclusive;
+        private final K to;
+        private final boolean toInclusive;
+        private Object[] keys;
+        private Object[] values;
+        private int position;
+        //end of the range inside the current chunk
+        private int end;
+        private K last;
+        private boolean finished;
+
+        private Cursor(K from, boolean fromInclusive, K to, boolean toInclusive) {
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+        }
+
+        //copies the next entries of the range into keys and values (values may be null to read only the keys)
+        //and returns how many were copied, at most keys.length, 0 once the range is done
+        public int next(K[] keys, V[] values) {
+            if (values != null && values.length < keys.length) {
+                throw new IllegalArgumentException("values is shorter than keys");
+            }
+            int count = 0;
+            while (count < keys.length && (position < end || load())) {
+                int n = Math.min(end - position, keys.length - count);
+                System.arraycopy(this.keys, position, keys, count, n);
+                if (values != null) {
+                    System.arraycopy(this.values, position, values, count, n);
+                }
+                position += n;
+                count += n;
+                last = keys[count - 1];
+            }
+            return count;
+        }
+
+        //moves to the first chunk with keys after the last key returned, false if there is none in the range
+        private boolean load() {
+            if (finished || (keys != null && end < keys.length)) {
+                //the current chunk already went past the end of the range
+                finished = true;
+                return false;
+            }
+            K after = last != null ? last : from;
+            boolean inclusive = last == null && fromInclusive;
+            Map.Entry<K, Chunk> entry = after == null ? null : index.floorEntry(after);
+            if (entry == null) {
+                entry = index.firstEntry();
+            }
+            for (; entry != null; entry = index.higherEntry(entry.getKey())) {
+                Object[] chunkKeys = entry.getValue().keys;
+                int start = after == null ? 0 : indexAfter(chunkKeys, after, inclusive);
+                if (start < chunkKeys.length) {
+                    keys = chunkKeys;
+                    values = entry.getValue().values;
+                    position = start;
+                    end = to == null ? chunkKeys.length : indexAfter(chunkKeys, to, !toInclusive);
+                    if (position < end) {
+                        return true;
+                    }
+                    break;
+                }
+            }
+            finished = true;
+            return false;
+        }
+    }
+
+    //index of the first key >= key (inclusive) or > key
+    private int indexAfter(Object[] keys, Object key, boolean inclusive) {
+        int i = search(keys, key);
+        if (i < 0) {
+            return -i - 1;
+        }
+        return inclusive ? i : i + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int search(Object[] keys, Object key) {
+        return Arrays.binarySearch(keys, key, (Comparator<Object>) comparator);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object a, Object b) {
+        return comparator == null ? ((Comparable<Object>) a).compareTo(b) : comparator.compare((K) a, (K) b);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> set = entrySet;
+        if (set == null) {
+            set = entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return ChunkedSkipListMap.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    ChunkedSkipListMap.this.clear();
+                }
+            };
+        }
+        return set;
+    }
+
+    //reads the map through a cursor, one chunk sized batch at a time
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private final Cursor cursor = cursor();
+        @SuppressWarnings("unchecked")
+        private final K[] keys = (K[]) new Object[CHUNK_CAPACITY];
+        @SuppressWarnings("unchecked")
+        private final V[] values = (V[]) new Object[CHUNK_CAPACITY];
+        private int count;
+        private int position;
+        private K lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            if (position == count) {
+                count = cursor.next(keys, values);
+                position = 0;
+            }
+            return position < count;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = keys[position];
+            return new SimpleImmutableEntry<>(lastReturned, values[position++]);
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            ChunkedSkipListMap.this.remove(lastReturned);
+            lastReturned = null;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package Collection.Map.Concurrent.ParallelMapOps;
+
+import Collection.Map.SortedMapDemo.BTreeMap.BTreeMap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+//ConcurrentHashMap has forEach, reduce and search with a parallelism threshold, but only for itself and always on the
+//common pool (shared with every parallel stream of the application). HashMap and TreeMap have no parallel bulk operations
+//ParallelMapOps runs the same operations over any Map on its own ForkJoinPool:
+//1. the entrySet() spliterator of the map is split in halves, every half becomes a fork join task
+//2. threshold is given per call : a part with at most threshold entries is not split any further,
+//   and a map with less than 2 * threshold entries is processed directly in the calling thread
+//   (Long.MAX_VALUE means always sequential, 1 means split as much as it is useful)
+//3. search() stops all tasks as soon as one of them finds a result
+//The map must not be structurally modified (keys added or removed) while an operation runs, unless it is a
+//concurrent map. The functions are called from several threads at the same time, so they must be thread safe
+//Maps with their own spliterator (HashMap, TreeMap, ConcurrentHashMap) split well, maps that only have an iterator
+//(most of the maps in this project) are split by copying batches of entries into arrays, which still spreads the work
+public class ParallelMapOps implements AutoCloseable {
+    private final ForkJoinPool pool;
+
+    public ParallelMapOps() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelMapOps(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public static void main(String[] args) {
+        try (ParallelMapOps ops = new ParallelMapOps()) {
+            Map<String, Integer> stock = new TreeMap<>(Map.of("apple", 50, "banana", 0, "cherry", 20, "grape", 0));
+            System.out.println(ops.reduce(stock, 1, (k, v) -> v, Integer::sum));//70
+            String sellOut = ops.search(stock, 1, (k, v) -> v > 40 ? k : null);
+            System.out.println(sellOut);//apple
+            ops.replaceAll(stock, 1, (k, v) -> v + 10);
+            System.out.println(stock);//{apple=60, banana=10, cherry=30, grape=10}
+
+            //a full scan of a big map, sequential vs split between all cores
+            //(run it with a large heap, for example -Xmx2g, the speedup grows with the number of cores)
+            int entries = 5_000_000;
+            Map<Integer, Integer> hashMap = new HashMap<>(entries * 2);
+            BTreeMap<Integer, Integer> bTreeMap = new BTreeMap<>();
+            for (int i = 0; i < entries; i++) {
+                hashMap.put(i, i % 1000);
+                bTreeMap.put(i, i % 1000);
+            }
+            for (int round = 0; round < 3; round++) {
+                for (Map<Integer, Integer> map : List.of(hashMap, bTreeMap)) {
+                    long start = System.nanoTime();
+                    Long sequential = ops.reduce(map, Long.MAX_VALUE, (k, v) -> (long) v * v, Long::sum);
+                    long sequentialTime = System.nanoTime() - start;
+                    start = System.nanoTime();
+                    Long parallel = ops.reduce(map, 10_000, (k, v) -> (long) v * v, Long::sum);
+                    long parallelTime = System.nanoTime() - start;
+                    System.out.println(map.getClass().getSimpleName() + " sum of squares " + parallel
+                            + (parallel.equals(sequential) ? "" : " != " + sequential)
+                            + " : sequential " + sequentialTime / 1_000_000 + " ms, parallel "
+                            + parallelTime / 1_000_000 + " ms");//1664167500000 for both maps
+                }
+            }
+
+            //ConcurrentHashMap can be modified while it is scanned
+            ConcurrentHashMap<Integer, Integer> live = new ConcurrentHashMap<>(hashMap);
+            ops.forEach(live, 100_000, (k, v) -> {
+                if (v == 0) {
+                    live.remove(k);
+                }
+            });
+            System.out.println(live.size());//4995000
+        }
+    }
+
+    //calls action for every entry of the map, in no particular order
+    public <K, V> void forEach(Map<K, V> map, long threshold, BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        run(map, threshold, entry -> action.accept(entry.getKey(), entry.getValue()), null);
+    }
+
+    //replaces every value with function(key, value), the entries of the map must support setValue()
+    public <K, V> void replaceAll(Map<K, V> map, long threshold,
+                                  BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(function);
+        run(map, threshold, entry -> entry.setValue(function.apply(entry.getKey(), entry.getValue())), null);
+    }
+
+    //a non null result of searchFunction for some entry (not necessarily the first one), or null if there is none
+    public <K, V, U> U search(Map<K, V> map, long threshold, BiFunction<? super K, ? super V, ? extends U> searchFunction) {
+        Objects.requireNonNull(searchFunction);
+        AtomicReference<U> result = new AtomicReference<>();
+        run(map, threshold, entry -> {
+            U found = searchFunction.apply(entry.getKey(), entry.getValue());
+            if (found != null) {
+                result.compareAndSet(null, found);
+            }
+        }, result);
+        return result.get();
+    }
+
+    //combines transformer(key, value) of all entries with reducer, like ConcurrentHashMap.reduce():
+    //null results of transformer are skipped, and the result is null if all of them were null (or the map is empty)
+    public <K, V, U> U reduce(Map<K, V> map, long threshold, BiFunction<? super K, ? super V, ? extends U> transformer,
+                              BiFunction<? super U, ? super U, ? extends U> reducer) {
+        Objects.requireNonNull(transformer);
+        Objects.requireNonNull(reducer);
+        ReduceTask<K, V, U> task = new ReduceTask<>(map.entrySet().spliterator(), leafSize(map, threshold),
+                transformer, reducer);
+        return sequential(map, threshold) ? task.compute() : pool.invoke(task);
+    }
+
+    private <K, V> void run(Map<K, V> map, long threshold, Consumer<Map.Entry<K, V>> action, AtomicReference<?> stop) {
+        ForEachTask<Map.Entry<K, V>> task = new ForEachTask<>(map.entrySet().spliterator(), leafSize(map, threshold),
+                action, stop);
+        if (sequential(map, threshold)) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    private static boolean sequential(Map<?, ?> map, long threshold) {
+        return map.size() / 2 < threshold;
+    }
+
+    //never smaller than threshold, and not smaller than needed for about 8 tasks per thread
+    //(enough to balance the load, more tasks would only add overhead)
+    //a sequential operation is never split, it must not fork tasks outside of the pool
+    private long leafSize(Map<?, ?> map, long threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        if (sequential(map, threshold)) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(threshold, map.size() / (pool.getParallelism() * 8L));
+    }
+
+    //shuts the pool down, an operation that is still running finishes first
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    //splits its spliterator in halves until a part has at most leafSize elements, then walks the part
+    private static final class ForEachTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<T> spliterator;
+        private final long leafSize;
+        private final Consumer<? super T> action;
+        //search only : once it holds a result every task stops
+        private final AtomicReference<?> stop;
+
+        ForEachTask(Spliterator<T> spliterator, long leafSize, Consumer<? super T> action, AtomicReference<?> stop) {
+            this.spliterator = spliterator;
+            this.leafSize = leafSize;
+            this.action = action;
+            this.stop = stop;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<T> prefix;
+            if (spliterator.estimateSize() > leafSize && (prefix = spliterator.trySplit()) != null) {
+                if (stop == null || stop.get() == null) {
+                    invokeAll(new ForEachTask<>(prefix, leafSize, action, stop),
+                            new ForEachTask<>(spliterator, leafSize, action, stop));
+                }
+                return;
+            }
+            if (stop == null) {
+                spliterator.forEachRemaining(action);
+            } else {
+                while (stop.get() == null && spliterator.tryAdvance(action)) {
+                    //checks the stop flag before every element
+                }
+            }
+        }
+    }
+
+    private static final class ReduceTask<K, V, U> extends RecursiveTask<U> {
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<Map.Entry<K, V>> spliterator;
+        private final long leafSize;
+        private final BiFunction<? super K, ? super V, ? extends U> transformer;
+        private final BiFunction<? super U, ? super U, ? extends U> reducer;
+
+        ReduceTask(Spliterator<Map.Entry<K, V>> spliterator, long leafSize,
+                   BiFunction<? super K, ? super V, ? extends U> transformer,
+                   BiFunction<? super U, ? super U, ? extends U> reducer) {
+            this.spliterator = spliterator;
+            this.leafSize = leafSize;
+            this.transformer = transformer;
+            this.reducer = reducer;
+        }
+
+        @Override
+        protected U compute() {
+            Spliterator<Map.Entry<K, V>> prefix;
+            if (spliterator.estimateSize() > leafSize && (prefix = spliterator.trySplit()) != null) {
+                ReduceTask<K, V, U> left = new ReduceTask<>(prefix, leafSize, transformer, reducer);
+                left.fork();
+                U right = new ReduceTask<>(spliterator, leafSize, transformer, reducer).compute();
+                return combine(left.join(), right);
+            }
+            //one element array so that the lambda can update it
+            Object[] result = new Object[1];
+            spliterator.forEachRemaining(entry -> {
+                U value = transformer.apply(entry.getKey(), entry.getValue());
+                if (value != null) {
+                    @SuppressWarnings("unchecked")
+                    U previous = (U) result[0];
+                    result[0] = combine(previous, value);
+                }
+            });
+            @SuppressWarnings("unchecked")
+            U value = (U) result[0];
+            return value;
+        }
+
+        private U combine(U a, U b) {
+            if (a == null) {
+                return b;
+            }
+            return b == null ? a : reducer.apply(a, b);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package Collection.Map.EnumMap;
+
+enum Days {
+    MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY, SATURDAY, SUNDAY
+}
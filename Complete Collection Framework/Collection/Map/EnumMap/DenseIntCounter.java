@@ -0,0 +1,89 @@
+package Collection.Map.EnumMap;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+//Counts occurrences of int keys from a small, known range, for example responses per HTTP status code
+//HashMap<Integer, Integer> with merge(code, 1, Integer::sum) boxes the key and usually the new count on every call,
+//here increment(code) is one array write and never allocates
+//Not synchronized (not thread safe), use one counter per thread and add() them together if needed
+public class DenseIntCounter {
+    private final int minKey;
+    private final long[] counts;
+
+    public DenseIntCounter(int minKey, int maxKey) {
+        if (maxKey < minKey) {
+            throw new IllegalArgumentException("maxKey " + maxKey + " is smaller than minKey " + minKey);
+        }
+        long range = (long) maxKey - minKey + 1;
+        if (range > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("key range is too large: " + range);
+        }
+        this.minKey = minKey;
+        this.counts = new long[(int) range];
+    }
+
+    public static void main(String[] args) {
+        DenseIntCounter statusCodes = new DenseIntCounter(100, 599);
+        int[] responses = {200, 200, 404, 200, 500, 404, 200};
+        for (int code : responses) {
+            statusCodes.increment(code);
+        }
+        System.out.println(statusCodes.get(200));//4
+        System.out.println(statusCodes);//{200=4, 404=2, 500=1}
+    }
+
+    public void increment(int key) {
+        counts[indexOf(key)]++;
+    }
+
+    public void add(int key, long delta) {
+        counts[indexOf(key)] += delta;
+    }
+
+    //adds all counts of another counter with the same key range
+    public void add(DenseIntCounter other) {
+        if (other.minKey != minKey || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("counters have different key ranges");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    public long get(int key) {
+        int index = key - minKey;
+        return index >= 0 && index < counts.length ? counts[index] : 0;
+    }
+
+    public long total() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+    }
+
+    private int indexOf(int key) {
+        int index = key - minKey;
+        if (index < 0 || index >= counts.length) {
+            throw new IllegalArgumentException("key " + key + " is outside of [" + minKey + ", " + (minKey + counts.length - 1) + "]");
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                joiner.add((minKey + i) + "=" + counts[i]);
+            }
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package Collection.Map.EnumMap;
+
+import Collection.Map.PrimitiveMap.IntObjConsumer;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+//EnumMap is fast because it knows every possible key in advance and uses the ordinal as the array index
+//DenseIntKeyMap does the same for int keys from a small, known range (HTTP status codes 100..599, hours 0..23, ...)
+//The value of key k is stored at values[k - minKey], so there is no hashing, no collisions, no boxing and no resize
+//Null values are not allowed, null in the array means "no value for this key"
+//Not synchronized (not thread safe)
+public class DenseIntKeyMap<V> {
+    private final int minKey;
+    private final Object[] values;
+    private int size;
+
+    public DenseIntKeyMap(int minKey, int maxKey) {
+        if (maxKey < minKey) {
+            throw new IllegalArgumentException("maxKey " + maxKey + " is smaller than minKey " + minKey);
+        }
+        long range = (long) maxKey - minKey + 1;
+        if (range > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("key range is too large: " + range);
+        }
+        this.minKey = minKey;
+        this.values = new Object[(int) range];
+    }
+
+    public static void main(String[] args) {
+        DenseIntKeyMap<String> reasons = new DenseIntKeyMap<>(100, 599);
+        reasons.put(200, "OK");
+        reasons.put(404, "Not Found");
+        reasons.put(500, "Internal Server Error");
+        System.out.println(reasons.get(404));//Not Found
+        System.out.println(reasons.get(418));//null
+        //keys come out in ascending order, just like EnumMap keeps the order of the enum
+        System.out.println(reasons);
+    }
+
+    public V get(int key) {
+        int index = key - minKey;
+        //keys outside of the range can never be in the map
+        return index >= 0 && index < values.length ? valueAt(index) : null;
+    }
+
+    public V getOrDefault(int key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("DenseIntKeyMap does not allow null values");
+        }
+        int index = indexOf(key);
+        V old = valueAt(index);
+        values[index] = value;
+        if (old == null) {
+            size++;
+        }
+        return old;
+    }
+
+    public V remove(int key) {
+        int index = key - minKey;
+        if (index < 0 || index >= values.length) {
+            return null;
+        }
+        V old = valueAt(index);
+        if (old != null) {
+            values[index] = null;
+            size--;
+        }
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    public int minKey() {
+        return minKey;
+    }
+
+    public int maxKey() {
+        return minKey + values.length - 1;
+    }
+
+    //ascending key order, no boxing of the keys
+    public void forEach(IntObjConsumer<? super V> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                action.accept(minKey + i, valueAt(i));
+            }
+        }
+    }
+
+    private int indexOf(int key) {
+        int index = key - minKey;
+        if (index < 0 || index >= values.length) {
+            throw new IllegalArgumentException("key " + key + " is outside of [" + minKey + ", " + maxKey() + "]");
+        }
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(key + "=" + value));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package Collection.Map.EnumMap;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+//Set of enum constants stored as bits : constant with ordinal i is in the set if bit i is set
+//java.util.EnumSet does the same behind the Set interface, EnumBitSet skips the interface and its Iterator objects
+//contains/add/remove are one shift and one mask on a long, and forEach/clear never allocate
+//64 constants fit in one long, bigger enums use more longs
+//Not synchronized (not thread safe)
+public class EnumBitSet<E extends Enum<E>> {
+    private final E[] universe;
+    private final long[] words;
+
+    public EnumBitSet(Class<E> enumType) {
+        this.universe = enumType.getEnumConstants();
+        this.words = new long[(universe.length + 63) >>> 6];
+    }
+
+    public static void main(String[] args) {
+        EnumBitSet<Days> workingDays = new EnumBitSet<>(Days.class);
+        workingDays.add(Days.MONDAY);
+        workingDays.add(Days.TUESDAY);
+        workingDays.add(Days.WEDNESDAY);
+        workingDays.add(Days.THURSDAY);
+        workingDays.add(Days.FRIDAY);
+        System.out.println(workingDays.contains(Days.SATURDAY));//false
+        System.out.println(workingDays.size());//5
+
+        EnumBitSet<Days> gymDays = new EnumBitSet<>(Days.class);
+        gymDays.add(Days.MONDAY);
+        gymDays.add(Days.SATURDAY);
+        //intersection is one AND per long
+        gymDays.retainAll(workingDays);
+        System.out.println(gymDays);//[MONDAY]
+    }
+
+    //true if the constant was not in the set before
+    public boolean add(E element) {
+        int ordinal = element.ordinal();
+        long before = words[ordinal >>> 6];
+        words[ordinal >>> 6] = before | (1L << ordinal);
+        return words[ordinal >>> 6] != before;
+    }
+
+    public boolean remove(E element) {
+        int ordinal = element.ordinal();
+        long before = words[ordinal >>> 6];
+        words[ordinal >>> 6] = before & ~(1L << ordinal);
+        return words[ordinal >>> 6] != before;
+    }
+
+    //(1L << ordinal) only uses the lower 6 bits of ordinal, that is why ordinal >>> 6 picks the long
+    public boolean contains(E element) {
+        int ordinal = element.ordinal();
+        return (words[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    public void addAll(EnumBitSet<E> other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    public void retainAll(EnumBitSet<E> other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other.words[i];
+        }
+    }
+
+    public void removeAll(EnumBitSet<E> other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    //in ordinal order, jumps from one set bit to the next with numberOfTrailingZeros
+    public void forEach(Consumer<? super E> action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept(universe[(i << 6) + Long.numberOfTrailingZeros(word)]);
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        forEach(element -> joiner.add(element.toString()));
+        return joiner.toString();
+    }
+}
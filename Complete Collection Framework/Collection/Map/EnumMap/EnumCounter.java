@@ -0,0 +1,62 @@
+package Collection.Map.EnumMap;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+//EnumMap<Days, Integer> as a counter boxes a new Integer for most updates
+//EnumCounter keeps one long per enum constant, indexed by ordinal, so counting never allocates
+//Not synchronized (not thread safe)
+public class EnumCounter<E extends Enum<E>> {
+    private final E[] universe;
+    private final long[] counts;
+
+    public EnumCounter(Class<E> enumType) {
+        this.universe = enumType.getEnumConstants();
+        this.counts = new long[universe.length];
+    }
+
+    public static void main(String[] args) {
+        EnumCounter<Days> logins = new EnumCounter<>(Days.class);
+        logins.increment(Days.MONDAY);
+        logins.increment(Days.MONDAY);
+        logins.add(Days.FRIDAY, 5);
+        System.out.println(logins.get(Days.MONDAY));//2
+        System.out.println(logins.total());//7
+        System.out.println(logins);//{MONDAY=2, FRIDAY=5}
+    }
+
+    public void increment(E element) {
+        counts[element.ordinal()]++;
+    }
+
+    public void add(E element, long delta) {
+        counts[element.ordinal()] += delta;
+    }
+
+    public long get(E element) {
+        return counts[element.ordinal()];
+    }
+
+    public long total() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                joiner.add(universe[i] + "=" + counts[i]);
+            }
+        }
+        return joiner.toString();
+    }
+}
@@ -24,6 +24,3 @@ public class EnumMapDemo {
     }
 
 }
-enum Days {
-    MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY, SATURDAY, SUNDAY
-}
\ No newline at end of file
@@ -1,7 +1,6 @@
 package Collection.Map.HashMap;
 
 import java.util.HashMap;
-import java.util.Objects;
 
 public class HashCodeDemo2 {
     public static void main(String[] args) {
@@ -38,47 +37,3 @@ public class HashCodeDemo2 {
         System.out.println(map.size());//3, since p3 and p4 are same, only one entry will be there in the map
     }
 }
-
-
-class Person{
-    private String name;
-    private int id;
-
-    public Person(String name, int id) {
-        this.name = name;
-        this.id = id;
-    }
-
-    @Override
-    public int hashCode() {
-        //Using the name and id fields to generate the hashcode
-        //this will make sure if two objects have same name and id, they will have same hashcode
-        return Objects.hash(this.name,this.id);
-    }
-
-    @Override
-    public String toString() {
-        return "Person{" +
-                "name='" + name + '\'' +
-                ", id=" + id +
-                '}';
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        if(obj == null){
-            return false;
-        }
-        //if both the object references are referring to the same object
-        if (this == obj){
-            return true;
-        }
-        //check if the object is an instance of Person class
-        if(this.getClass() != obj.getClass()){
-            return false;
-        }
-
-        Person p = (Person) obj;
-        return this.id == p.id && this.name.equals(p.name);
-    }
-}
\ No newline at end of file
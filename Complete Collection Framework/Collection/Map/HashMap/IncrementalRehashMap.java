@@ -0,0 +1,393 @@
+package Collection.Map.HashMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+//When HashMap crosses its load factor, the one put() that crosses it rehashes every entry into the new bucket array
+//With 50 million entries that single put() takes hundreds of milliseconds while every other put() takes nanoseconds
+//IncrementalRehashMap spreads the rehash over the next operations instead (same idea as Redis dict):
+//1. when the threshold is crossed, a new bucket array of double size is allocated and the old one is kept
+//2. every put() of a new key and every remove() that finds its key moves a few buckets of the old array into the new one
+//3. lookups check the new array and, for buckets that were not moved yet, the old array
+//4. when the last old bucket is moved, the old array is dropped
+//New entries always go to the new array, and enough buckets are moved per write that the migration
+//is finished long before the new array is full, so at most two arrays exist at any time
+//What is NOT spread out is the allocation of the new array itself : the put() that crosses the threshold still
+//allocates (and the JVM zeroes) an array of 2 * capacity references, which also grows with the size of the map
+//Buckets are linked lists of nodes like HashMap (without the treeify step). Not synchronized (not thread safe)
+public class IncrementalRehashMap<K, V> extends AbstractMap<K, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    //a doubling needs oldCapacity buckets moved within 0.75 * oldCapacity inserts, so 2 per write would be enough
+    private static final int BUCKETS_MOVED_PER_WRITE = 4;
+
+    private Node<K, V>[] table;
+    private Node<K, V>[] oldTable;
+    //buckets of oldTable below this index were already moved
+    private int migrateIndex;
+    private int size;
+    private int threshold;
+    private int modCount;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    public IncrementalRehashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IncrementalRehashMap(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity cannot be negative: " + initialCapacity);
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, Math.min(initialCapacity, MAXIMUM_CAPACITY)) - 1) << 1;
+        table = newTable(capacity);
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    public static void main(String[] args) {
+        int entries = 2_000_000;
+        //the slowest single put() shows the rehash pauses of HashMap. IncrementalRehashMap moves no entry in that put(),
+        //but it still allocates and zeroes the doubled bucket array there, so its slowest put() is lower, not tiny
+        //run it with a large fixed heap (for example -Xms3g -Xmx3g) so that GC pauses do not hide the rehash pauses
+        System.out.println("HashMap               slowest put: " + slowestPutMicros(new HashMap<>(), entries) + " us");
+        System.out.println("IncrementalRehashMap  slowest put: " + slowestPutMicros(new IncrementalRehashMap<>(), entries) + " us");
+    }
+
+    private static long slowestPutMicros(Map<Integer, Integer> map, int entries) {
+        long slowest = 0;
+        for (int i = 0; i < entries; i++) {
+            long start = System.nanoTime();
+            map.put(i, i);
+            slowest = Math.max(slowest, System.nanoTime() - start);
+        }
+        return slowest / 1000;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getNode(key) != null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        int hash = hash(key);
+        Node<K, V> node = findNode(hash, key);
+        if (node != null) {
+            //replacing a value is not a structural change : no bucket is moved and modCount stays the same,
+            //so map.put(k, ...) for every k of keySet() works while a rehash is running, just like with HashMap
+            V old = node.value;
+            node.value = value;
+            return old;
+        }
+        migrateSomeBuckets();
+        int index = hash & (table.length - 1);
+        table[index] = new Node<>(hash, key, value, table[index]);
+        size++;
+        modCount++;
+        if (size > threshold) {
+            startResize();
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> node = removeNode(hash(key), key);
+        if (node == null) {
+            return null;
+        }
+        migrateSomeBuckets();
+        return node.value;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        table = newTable(table.length);
+        oldTable = null;
+        migrateIndex = 0;
+        size = 0;
+        modCount++;
+    }
+
+    //true while an old bucket array is still being migrated
+    public boolean isRehashing() {
+        return oldTable != null;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> set = entrySet;
+        if (set == null) {
+            set = entrySet = new EntrySet();
+        }
+        return set;
+    }
+
+    private Node<K, V> getNode(Object key) {
+        return findNode(hash(key), key);
+    }
+
+    private Node<K, V> findNode(int hash, Object key) {
+        Node<K, V> node = findInBucket(table[hash & (table.length - 1)], hash, key);
+        if (node == null && oldTable != null) {
+            int oldIndex = hash & (oldTable.length - 1);
+            if (oldIndex >= migrateIndex) {
+                node = findInBucket(oldTable[oldIndex], hash, key);
+            }
+        }
+        return node;
+    }
+
+    private static <K, V> Node<K, V> findInBucket(Node<K, V> node, int hash, Object key) {
+        while (node != null) {
+            if (node.hash == hash && Objects.equals(node.key, key)) {
+                return node;
+            }
+            node = node.next;
+        }
+        return null;
+    }
+
+    private Node<K, V> removeNode(int hash, Object key) {
+        Node<K, V> removed = removeFromBucket(table, hash & (table.length - 1), hash, key);
+        if (removed == null && oldTable != null) {
+            int oldIndex = hash & (oldTable.length - 1);
+            if (oldIndex >= migrateIndex) {
+                removed = removeFromBucket(oldTable, oldIndex, hash, key);
+            }
+        }
+        if (removed != null) {
+            size--;
+            modCount++;
+        }
+        return removed;
+    }
+
+    private static <K, V> Node<K, V> removeFromBucket(Node<K, V>[] tab, int index, int hash, Object key) {
+        Node<K, V> previous = null;
+        for (Node<K, V> node = tab[index]; node != null; previous = node, node = node.next) {
+            if (node.hash == hash && Objects.equals(node.key, key)) {
+                if (previous == null) {
+                    tab[index] = node.next;
+                } else {
+                    previous.next = node.next;
+                }
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private void startResize() {
+        if (table.length == MAXIMUM_CAPACITY) {
+            threshold = Integer.MAX_VALUE;
+            return;
+        }
+        if (oldTable != null) {
+            //cannot happen with the default settings, but never keep more than two arrays
+            finishResize();
+        }
+        oldTable = table;
+        table = newTable(oldTable.length << 1);
+        threshold = (int) (table.length * LOAD_FACTOR);
+        migrateIndex = 0;
+    }
+
+    private void migrateSomeBuckets() {
+        if (oldTable == null) {
+            return;
+        }
+        int end = Math.min(oldTable.length, migrateIndex + BUCKETS_MOVED_PER_WRITE);
+        while (migrateIndex < end) {
+            migrateBucket(migrateIndex++);
+        }
+        if (migrateIndex == oldTable.length) {
+            oldTable = null;
+            migrateIndex = 0;
+        }
+        //moving nodes changes where an iterator would find them
+        modCount++;
+    }
+
+    private void finishResize() {
+        while (migrateIndex < oldTable.length) {
+            migrateBucket(migrateIndex++);
+        }
+        oldTable = null;
+        migrateIndex = 0;
+    }
+
+    private void migrateBucket(int index) {
+        Node<K, V> node = oldTable[index];
+        oldTable[index] = null;
+        int mask = table.length - 1;
+        while (node != null) {
+            Node<K, V> next = node.next;
+            int newIndex = node.hash & mask;
+            node.next = table[newIndex];
+            table[newIndex] = node;
+            node = next;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V> Node<K, V>[] newTable(int capacity) {
+        return (Node<K, V>[]) new Node[capacity];
+    }
+
+    private static int hash(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static class Node<K, V> implements Map.Entry<K, V> {
+        final int hash;
+        final K key;
+        V value;
+        Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            IncrementalRehashMap.this.clear();
+        }
+    }
+
+    //walks the buckets of the new array and then the not yet moved buckets of the old array
+    //iterating does not move any bucket, only put() and remove() on the map do (and they fail the iterator)
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private final Node<K, V>[] newTab = table;
+        private final Node<K, V>[] oldTab = oldTable;
+        private final int oldStart = migrateIndex;
+        private Node<K, V>[] currentTab = newTab;
+        private int index;
+        private Node<K, V> next;
+        private Node<K, V> last;
+        private int expectedModCount = modCount;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            if (next != null) {
+                next = next.next;
+            }
+            while (next == null) {
+                if (index >= currentTab.length) {
+                    if (currentTab == newTab && oldTab != null) {
+                        currentTab = oldTab;
+                        index = oldStart;
+                        continue;
+                    }
+                    return;
+                }
+                next = currentTab[index++];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            //removeNode() does not migrate buckets, so the arrays this iterator walks stay the same
+            removeNode(last.hash, last.key);
+            last = null;
+            expectedModCount = modCount;
+        }
+    }
+}
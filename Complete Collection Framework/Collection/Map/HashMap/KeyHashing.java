@@ -0,0 +1,57 @@
+package Collection.Map.HashMap;
+
+//Helpers for writing hashCode() of key classes without Objects.hash()
+//Objects.hash(name, id) creates a new Object[] for the varargs and boxes id into an Integer on every call,
+//and a key is hashed on every single map lookup
+//These methods take the fields as they are (int, long, Object), so nothing is allocated
+//The result is passed through mix(), so keys that differ in only a few bits (ids 1, 2, 3, ...) still get very
+//different hash codes and are spread over all buckets
+//Use them once in the constructor of an immutable key and store the result in a final field (see PersonKey)
+public final class KeyHashing {
+    private KeyHashing() {
+    }
+
+    //finalizer of MurmurHash3, every input bit changes about half of the output bits
+    public static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    public static int hash(int value) {
+        return mix(value);
+    }
+
+    public static int hash(long value) {
+        return mix((int) (value ^ (value >>> 32)));
+    }
+
+    public static int hash(Object value) {
+        return mix(value == null ? 0 : value.hashCode());
+    }
+
+    public static int hash(Object first, int second) {
+        return mix(combine(first == null ? 0 : first.hashCode(), second));
+    }
+
+    public static int hash(Object first, long second) {
+        return mix(combine(first == null ? 0 : first.hashCode(), (int) (second ^ (second >>> 32))));
+    }
+
+    public static int hash(Object first, Object second) {
+        return mix(combine(first == null ? 0 : first.hashCode(), second == null ? 0 : second.hashCode()));
+    }
+
+    public static int hash(Object first, Object second, Object third) {
+        int h = combine(first == null ? 0 : first.hashCode(), second == null ? 0 : second.hashCode());
+        return mix(combine(h, third == null ? 0 : third.hashCode()));
+    }
+
+    //same 31 * h + x step as Objects.hash, without the array
+    private static int combine(int h, int next) {
+        return 31 * h + next;
+    }
+}
@@ -0,0 +1,56 @@
+package Collection.Map.HashMap;
+
+//Same fields and the same meaning of equality as Person (the key of HashCodeDemo2), written as a fast map key:
+//1. the class and the fields are final, so the key cannot change while it is inside a map
+//2. the hash code is computed once in the constructor with KeyHashing (no varargs array, no boxing)
+//   and hashCode() just returns the field
+//3. equals() first compares the cached hash codes and the int id, which are cheap and almost always
+//   decide the answer, and only then compares the name Strings character by character
+public final class PersonKey {
+    private final String name;
+    private final int id;
+    private final int hash;
+
+    public PersonKey(String name, int id) {
+        if (name == null) {
+            throw new NullPointerException("name");
+        }
+        this.name = name;
+        this.id = id;
+        this.hash = KeyHashing.hash(name, id);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        //instanceof is also false for null, the class is final so there are no subclasses to worry about
+        if (!(obj instanceof PersonKey)) {
+            return false;
+        }
+        PersonKey p = (PersonKey) obj;
+        return this.hash == p.hash && this.id == p.id && this.name.equals(p.name);
+    }
+
+    @Override
+    public String toString() {
+        return "PersonKey{" +
+                "name='" + name + '\'' +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package Collection.Map.HashMap;
+
+import java.util.HashMap;
+import java.util.Random;
+
+//Looks up every key of a HashMap<Person, String> and of a HashMap<PersonKey, String> many times
+//Person.hashCode() calls Objects.hash(name, id) on every lookup, PersonKey returns a cached field
+//The lookups use equal copies of the keys, not the objects that were put, like a key that was just parsed from a request
+//With the same objects equals() would return at this == obj and only hashCode() would be measured
+//It is a plain main() benchmark, run it a few times and compare the two numbers with each other
+public class PersonLookupBenchmark {
+    private static final int PEOPLE = 100_000;
+    private static final int ROUNDS = 50;
+
+    public static void main(String[] args) {
+        Person[] people = new Person[PEOPLE];
+        PersonKey[] keys = new PersonKey[PEOPLE];
+        HashMap<Person, String> personMap = new HashMap<>();
+        HashMap<PersonKey, String> keyMap = new HashMap<>();
+        for (int i = 0; i < PEOPLE; i++) {
+            personMap.put(new Person("Person" + i, i), "Engineer" + i);
+            keyMap.put(new PersonKey("Person" + i, i), "Engineer" + i);
+        }
+        //both arrays ask for the people in the same random order : Objects.hash("Person" + i, i) is nearly sequential
+        //in i, so looking them up in order of i would walk the HashMap table from start to end and favor Person
+        Random random = new Random(42);
+        for (int i = 0; i < PEOPLE; i++) {
+            int j = random.nextInt(i + 1);
+            people[i] = people[j];
+            keys[i] = keys[j];
+            //"Person" + i creates a new String as well, so equals() compares the chars of the names
+            people[j] = new Person("Person" + i, i);
+            keys[j] = new PersonKey("Person" + i, i);
+        }
+
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            int found = lookupPeople(personMap, people);
+            long personNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            found += lookupKeys(keyMap, keys);
+            long keyNanos = System.nanoTime() - start;
+
+            long lookups = (long) PEOPLE * ROUNDS;
+            System.out.printf("Person (Objects.hash)=%.1f ns/lookup   PersonKey (cached hash)=%.1f ns/lookup   (%d found)%n",
+                    (double) personNanos / lookups, (double) keyNanos / lookups, found);
+        }
+    }
+
+    private static int lookupPeople(HashMap<Person, String> map, Person[] people) {
+        int found = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (Person person : people) {
+                if (map.get(person) != null) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static int lookupKeys(HashMap<PersonKey, String> map, PersonKey[] keys) {
+        int found = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (PersonKey key : keys) {
+                if (map.get(key) != null) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+}
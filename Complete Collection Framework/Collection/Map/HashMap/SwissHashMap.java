@@ -0,0 +1,443 @@
+package Collection.Map.HashMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+//HashMap stores every entry in a Node object inside a linked list (or a tree) per bucket
+//so every entry is an extra allocation, and a lookup follows a pointer for every node in the bucket
+//SwissHashMap (the "Swiss table" design) has no nodes at all:
+//1. keys and values are stored in two flat arrays (open addressing)
+//2. for every slot there is one control byte : EMPTY, DELETED or FULL + 7 bits of the hash of the key (h2)
+//3. slots are grouped by 8, and the 8 control bytes of a group are packed into one long
+//A lookup compares h2 against all 8 control bytes of a group at once with a few bit tricks on the long
+//(SIMD within a register), and only calls equals() for the slots whose 7 bits match
+//So most lookups touch one long and one key, no matter how many keys collided on the same group
+//Null key and null values are allowed just like HashMap, so it can replace HashMap in HashMapDemo
+//Not synchronized (not thread safe)
+public class SwissHashMap<K, V> extends AbstractMap<K, V> {
+    private static final int GROUP_WIDTH = 8;
+    private static final long EMPTY = 0x80L;
+    private static final long DELETED = 0xFEL;
+    private static final long LSBS = 0x0101010101010101L;
+    private static final long MSBS = 0x8080808080808080L;
+    private static final long ALL_EMPTY = EMPTY * LSBS;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    //the null key is stored as this object so that the arrays can use null for "no key"
+    private static final Object NULL_KEY = new Object();
+
+    private long[] controls;
+    private Object[] keys;
+    private Object[] values;
+    private int groupMask;
+    private int size;
+    //how many EMPTY slots can still be filled before the table is rebuilt (7/8 of the slots at most)
+    private int growthLeft;
+    private int modCount;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    public SwissHashMap() {
+        this(16);
+    }
+
+    public SwissHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize cannot be negative: " + expectedSize);
+        }
+        long needed = Math.max(GROUP_WIDTH, (long) Math.ceil(expectedSize * 8.0 / 7.0));
+        if (needed > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("expectedSize is too large: " + expectedSize);
+        }
+        allocate(Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    public static void main(String[] args) {
+        //same usage as HashMapDemo, only the implementation behind the Map interface changes
+        Map<Integer, String> hashMap = new SwissHashMap<>();
+        hashMap.put(1, "Mike");
+        hashMap.put(2, "John");
+        hashMap.put(3, "David");
+        hashMap.put(4, "Alice");
+        System.out.println(hashMap);
+
+        System.out.println(hashMap.get(2));//John
+        System.out.println(hashMap.containsValue("Mike"));//true
+        for (Map.Entry<Integer, String> entry : hashMap.entrySet()) {
+            entry.setValue(entry.getValue().toUpperCase());
+        }
+        System.out.println(hashMap.getOrDefault(5, "Not Found"));//Not Found
+        hashMap.put(null, "Null Value");
+        hashMap.putIfAbsent(5, "Mikee");
+        hashMap.put(1, "Mikee");
+        hashMap.remove(null);
+        System.out.println(hashMap.remove(3, "Mikee"));//false
+        System.out.println(hashMap);
+    }
+
+    @Override
+    public V get(Object key) {
+        int slot = find(maskNull(key));
+        return slot < 0 ? null : valueAt(slot);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        int slot = find(maskNull(key));
+        return slot < 0 ? defaultValue : valueAt(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(maskNull(key)) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null && Objects.equals(values[slot], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Object k = maskNull(key);
+        int hash = hash(k);
+        int slot = find(k, hash);
+        if (slot >= 0) {
+            V old = valueAt(slot);
+            values[slot] = value;
+            return old;
+        }
+        slot = findInsertSlot(hash);
+        if (growthLeft == 0 && control(slot) == EMPTY) {
+            //no free EMPTY slot left, rebuild the table (bigger, or same size if it is full of DELETED slots)
+            rehash();
+            slot = findInsertSlot(hash);
+        }
+        if (control(slot) == EMPTY) {
+            growthLeft--;
+        }
+        setControl(slot, h2(hash));
+        keys[slot] = k;
+        values[slot] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        int slot = find(maskNull(key));
+        if (slot < 0) {
+            return null;
+        }
+        V old = valueAt(slot);
+        removeAt(slot);
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(controls, ALL_EMPTY);
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+        growthLeft = keys.length / 8 * 7;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> set = entrySet;
+        if (set == null) {
+            set = entrySet = new EntrySet();
+        }
+        return set;
+    }
+
+    private int find(Object key) {
+        return find(key, hash(key));
+    }
+
+    private int find(Object key, int hash) {
+        long pattern = h2(hash) * LSBS;
+        int group = h1(hash) & groupMask;
+        for (int step = 1; ; step++) {
+            long controlWord = controls[group];
+            //every byte of the group that equals h2 gets its top bit set in candidates
+            long candidates = matchByte(controlWord, pattern);
+            while (candidates != 0) {
+                int slot = group * GROUP_WIDTH + (Long.numberOfTrailingZeros(candidates) >>> 3);
+                Object candidate = keys[slot];
+                if (candidate == key || candidate.equals(key)) {
+                    return slot;
+                }
+                candidates &= candidates - 1;
+            }
+            //the key would have been inserted into the first group with an EMPTY slot, so it is not in the map
+            if (matchEmpty(controlWord) != 0 || step > groupMask) {
+                return -1;
+            }
+            //triangular probing (1, 2, 3, ... groups further each time) visits every group of a power of two table
+            group = (group + step) & groupMask;
+        }
+    }
+
+    //first EMPTY or DELETED slot in the probe sequence of the hash
+    private int findInsertSlot(int hash) {
+        int group = h1(hash) & groupMask;
+        for (int step = 1; ; step++) {
+            long free = controls[group] & MSBS;
+            if (free != 0) {
+                return group * GROUP_WIDTH + (Long.numberOfTrailingZeros(free) >>> 3);
+            }
+            group = (group + step) & groupMask;
+        }
+    }
+
+    private void removeAt(int slot) {
+        //if the group still has an EMPTY slot, no probe ever went past this group, so the slot can be EMPTY again
+        //otherwise other keys may live further down the probe sequence and the slot must be marked DELETED
+        if (matchEmpty(controls[slot / GROUP_WIDTH]) != 0) {
+            setControl(slot, EMPTY);
+            growthLeft++;
+        } else {
+            setControl(slot, DELETED);
+        }
+        keys[slot] = null;
+        values[slot] = null;
+        size--;
+        modCount++;
+    }
+
+    private void rehash() {
+        int capacity = keys.length;
+        //DELETED slots are dropped by a rebuild, double only if the table is more than 7/16 full
+        int newCapacity = size * 16L > capacity * 7L ? capacity << 1 : capacity;
+        if (newCapacity > MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("map is full");
+        }
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            Object key = oldKeys[slot];
+            if (key != null) {
+                int hash = hash(key);
+                int newSlot = findInsertSlot(hash);
+                setControl(newSlot, h2(hash));
+                keys[newSlot] = key;
+                values[newSlot] = oldValues[slot];
+                growthLeft--;
+            }
+        }
+        modCount++;
+    }
+
+    private void allocate(int capacity) {
+        controls = new long[capacity / GROUP_WIDTH];
+        Arrays.fill(controls, ALL_EMPTY);
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        groupMask = controls.length - 1;
+        growthLeft = capacity / 8 * 7;
+    }
+
+    private long control(int slot) {
+        return (controls[slot / GROUP_WIDTH] >>> ((slot % GROUP_WIDTH) * 8)) & 0xFFL;
+    }
+
+    private void setControl(int slot, long control) {
+        int shift = (slot % GROUP_WIDTH) * 8;
+        int group = slot / GROUP_WIDTH;
+        controls[group] = (controls[group] & ~(0xFFL << shift)) | (control << shift);
+    }
+
+    //classic "does this word contain a zero byte" trick applied to (word xor pattern)
+    //can report a false match next to a real one, that is fine because the keys are compared with equals() anyway
+    private static long matchByte(long word, long pattern) {
+        long x = word ^ pattern;
+        return (x - LSBS) & ~x & MSBS;
+    }
+
+    //EMPTY is 1000_0000 and DELETED is 1111_1110, only EMPTY has the top bit set and bit 1 clear
+    private static long matchEmpty(long word) {
+        return word & (~word << 6) & MSBS;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    //upper 25 bits pick the group
+    private static int h1(int hash) {
+        return hash >>> 7;
+    }
+
+    //lower 7 bits are stored in the control byte
+    private static long h2(int hash) {
+        return hash & 0x7FL;
+    }
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int slot) {
+        Object key = keys[slot];
+        return key == NULL_KEY ? null : (K) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            SwissHashMap.this.clear();
+        }
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private int next = advance(0);
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        private int advance(int from) {
+            while (from < keys.length && keys[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= keys.length) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance(next + 1);
+            return new Entry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            //removing never moves other entries (no rehash), so the iteration order stays the same
+            removeAt(last);
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    //bound to its key like a HashMap entry, not to its slot : after a rehash or a remove the slot can hold another key,
+    //so every access first checks that the slot still holds this key and looks the key up again if not
+    //once the key is removed the entry keeps its last value, like a HashMap node that is no longer in the map
+    private class Entry implements Map.Entry<K, V> {
+        private final K key;
+        //the key object as it is stored in keys (NULL_KEY for null)
+        private final Object stored;
+        private int slot;
+        private V value;
+
+        Entry(int slot) {
+            this.slot = slot;
+            this.stored = keys[slot];
+            this.key = keyAt(slot);
+            this.value = valueAt(slot);
+        }
+
+        //slot of the key, or -1 if it was removed from the map
+        private int slot() {
+            if (slot < 0 || slot >= keys.length || keys[slot] != stored) {
+                slot = find(stored);
+            }
+            return slot;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            int current = slot();
+            if (current >= 0) {
+                value = valueAt(current);
+            }
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = getValue();
+            int current = slot();
+            if (current >= 0) {
+                values[current] = value;
+            }
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(key, e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package Collection.Map.IdentityHashMap;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+
+//Same idea as IdentityHashMap (keys are compared with == and hashed with System.identityHashCode),
+//but made to be reused again and again, for example once per object graph that a serializer walks:
+//1. keys and values are in two flat arrays with linear probing, no entry objects
+//2. every slot that gets filled is written down in the touched array, so clear() only empties those slots
+//   clear() is O(number of entries that were added) instead of O(size of the arrays)
+//3. clear() keeps the arrays, so after the first few uses the map already has the right size and never resizes
+//Null keys are not allowed. Not synchronized (not thread safe)
+public class IdentityMap<K, V> {
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private Object[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    //slots filled since the last clear(), -1 in touchedCount means the list overflowed and clear() must wipe everything
+    private int[] touched;
+    private int touchedCount;
+
+    public IdentityMap() {
+        this(32);
+    }
+
+    public IdentityMap(int expectedMaxSize) {
+        if (expectedMaxSize < 0) {
+            throw new IllegalArgumentException("expectedMaxSize cannot be negative: " + expectedMaxSize);
+        }
+        //at most half of the slots are used
+        long needed = Math.max(4, 2L * expectedMaxSize);
+        if (needed > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("expectedMaxSize is too large: " + expectedMaxSize);
+        }
+        allocate(Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    public static void main(String[] args) {
+        //cycle detection while walking an object graph : a -> b -> c -> a
+        Node a = new Node("a");
+        Node b = new Node("b");
+        Node c = new Node("c");
+        a.next = b;
+        b.next = c;
+        c.next = a;
+
+        IdentityMap<Node, Integer> visited = new IdentityMap<>();
+        for (int request = 0; request < 3; request++) {
+            int step = 0;
+            for (Node node = a; node != null; node = node.next) {
+                Integer seenAt = visited.putIfAbsent(node, step++);
+                if (seenAt != null) {
+                    System.out.println("cycle back to " + node.name + " (first seen at step " + seenAt + ")");
+                    break;
+                }
+            }
+            //only the 3 touched slots are emptied, the arrays are kept for the next request
+            visited.clear();
+        }
+    }
+
+    public V get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    public V put(K key, V value) {
+        return put(key, value, false);
+    }
+
+    //does not replace an existing value, returns it instead (null means the key was added)
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, true);
+    }
+
+    public V remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V old = valueAt(index);
+        removeAt(index);
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    //O(number of slots filled since the last clear), the arrays are kept for reuse
+    public void clear() {
+        if (touchedCount < 0) {
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+        } else {
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                keys[slot] = null;
+                values[slot] = null;
+            }
+        }
+        touchedCount = 0;
+        size = 0;
+    }
+
+    //number of slots, stays the same after clear()
+    public int capacity() {
+        return keys.length;
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(keyAt(i), valueAt(i));
+            }
+        }
+    }
+
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        if (key == null) {
+            throw new NullPointerException("IdentityMap does not allow null keys");
+        }
+        int index = hash(key) & mask;
+        Object current;
+        while ((current = keys[index]) != null) {
+            if (current == key) {
+                V old = valueAt(index);
+                if (!onlyIfAbsent) {
+                    values[index] = value;
+                }
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        touch(index);
+        if (++size > resizeThreshold) {
+            resize();
+        }
+        return null;
+    }
+
+    private int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        int index = hash(key) & mask;
+        Object current;
+        while ((current = keys[index]) != null) {
+            if (current == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    //backward shift deletion, same as in IntObjectHashMap
+    //a hole is always a slot that was filled before, so it is already in the touched list
+    private void removeAt(int index) {
+        size--;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != null) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+    }
+
+    private void touch(int slot) {
+        if (touchedCount < 0) {
+            return;
+        }
+        if (touchedCount == touched.length) {
+            //only possible with many removes and re-adds, fall back to wiping the whole arrays once
+            touchedCount = -1;
+            return;
+        }
+        touched[touchedCount++] = slot;
+    }
+
+    private void resize() {
+        if (keys.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("map is full");
+        }
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key != null) {
+                int index = hash(key) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+                touch(index);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = capacity / 2;
+        //an entry is touched at most once between clears unless it is removed, half of the slots is enough
+        touched = new int[resizeThreshold + 1];
+        touchedCount = 0;
+    }
+
+    //identityHashCode values are not well spread in the low bits, so they are mixed before masking
+    private static int hash(Object key) {
+        int h = System.identityHashCode(key) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int index) {
+        return (K) keys[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(key + "=" + value));
+        return joiner.toString();
+    }
+
+    private static class Node {
+        final String name;
+        Node next;
+
+        Node(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package Collection.Map.IdentityHashMap;
+
+import java.util.ArrayDeque;
+
+//Pool of IdentityMaps for per request use (one map per serialized object graph, per traversal, ...)
+//acquire() takes a map from the pool of the current thread, release() clears it and puts it back
+//The maps keep their arrays and the pool is an ArrayDeque per thread, so once every thread has its maps
+//acquire() and release() do not allocate anything
+//Maps that grew bigger than maxRetainedCapacity are dropped on release, so one huge request does not keep
+//its huge arrays alive for ever
+public class IdentityMapPool<K, V> {
+    private final ThreadLocal<ArrayDeque<IdentityMap<K, V>>> pools = ThreadLocal.withInitial(ArrayDeque::new);
+    private final int expectedMaxSize;
+    private final int maxRetainedCapacity;
+    private final int maxPooledPerThread;
+
+    public IdentityMapPool(int expectedMaxSize, int maxRetainedCapacity, int maxPooledPerThread) {
+        if (expectedMaxSize < 0 || maxRetainedCapacity <= 0 || maxPooledPerThread <= 0) {
+            throw new IllegalArgumentException("pool sizes must be positive");
+        }
+        this.expectedMaxSize = expectedMaxSize;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+        this.maxPooledPerThread = maxPooledPerThread;
+    }
+
+    public static void main(String[] args) {
+        IdentityMapPool<Object, Integer> pool = new IdentityMapPool<>(64, 1 << 16, 4);
+        for (int request = 0; request < 3; request++) {
+            IdentityMap<Object, Integer> ids = pool.acquire();
+            try {
+                Object shared = new Object();
+                ids.put(shared, 1);
+                ids.put(new Object(), 2);
+                //same object again, a serializer would write a back reference instead of the object
+                System.out.println("request " + request + " back reference id: " + ids.get(shared));
+            } finally {
+                pool.release(ids);
+            }
+        }
+    }
+
+    public IdentityMap<K, V> acquire() {
+        IdentityMap<K, V> map = pools.get().poll();
+        return map != null ? map : new IdentityMap<>(expectedMaxSize);
+    }
+
+    //the map must not be used by the caller after it is released
+    public void release(IdentityMap<K, V> map) {
+        map.clear();
+        ArrayDeque<IdentityMap<K, V>> pool = pools.get();
+        if (map.capacity() <= maxRetainedCapacity && pool.size() < maxPooledPerThread) {
+            pool.push(map);
+        }
+    }
+}
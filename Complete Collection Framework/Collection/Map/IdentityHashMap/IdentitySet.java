@@ -0,0 +1,59 @@
+package Collection.Map.IdentityHashMap;
+
+import java.util.function.Consumer;
+
+//Set that compares elements with == (like Collections.newSetFromMap(new IdentityHashMap<>()))
+//Backed by an IdentityMap, so it has the same cheap clear() and can be reused without allocating
+public class IdentitySet<E> {
+    private static final Object PRESENT = Boolean.TRUE;
+
+    private final IdentityMap<E, Object> map;
+
+    public IdentitySet() {
+        this.map = new IdentityMap<>();
+    }
+
+    public IdentitySet(int expectedMaxSize) {
+        this.map = new IdentityMap<>(expectedMaxSize);
+    }
+
+    //true if the element was added, false if this exact object was already in the set
+    public boolean add(E element) {
+        return map.putIfAbsent(element, PRESENT) == null;
+    }
+
+    public boolean contains(Object element) {
+        return map.containsKey(element);
+    }
+
+    public boolean remove(Object element) {
+        return map.remove(element) != null;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    public int capacity() {
+        return map.capacity();
+    }
+
+    public void forEach(Consumer<? super E> action) {
+        map.forEach((element, present) -> action.accept(element));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        forEach(element -> builder.append(builder.length() == 1 ? "" : ", ").append(element));
+        return builder.append(']').toString();
+    }
+}
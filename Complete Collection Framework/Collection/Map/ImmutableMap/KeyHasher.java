@@ -0,0 +1,48 @@
+package Collection.Map.ImmutableMap;
+
+import java.util.List;
+
+//64 bit hash of a key for PerfectHashMap and PerfectHashSet
+//A perfect hash can only separate keys whose hashes differ, and with 32 bit hashCode() a million Strings already
+//have about a hundred pairs with the same hash code, so the tables use 64 bit hashes instead
+//The same hasher must be used to build a table and to open it again from a file (see MappedPerfectHashMap)
+@FunctionalInterface
+public interface KeyHasher<K> {
+    long hash(K key);
+
+    //Strings are hashed over all of their chars (64 bit FNV-1a), Long and Integer keys are used as they are,
+    //and Lists over the 64 bit hashes of their elements (so List.of(1, 2) and an ArrayList [1, 2] get the same hash)
+    //Any other key throws ClassCastException, like TreeMap does for keys that are not Comparable :
+    //its 32 bit hashCode() would collide on big tables (and an identity hashCode() differs in every JVM,
+    //so a table saved to a file could not be opened again), build the table with a KeyHasher for it instead
+    static <K> KeyHasher<K> defaultHasher() {
+        return KeyHasher::hashAny;
+    }
+
+    private static long hashAny(Object key) {
+        if (key instanceof String) {
+            String s = (String) key;
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < s.length(); i++) {
+                h ^= s.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+        if (key instanceof Long) {
+            return (Long) key;
+        }
+        if (key instanceof Integer) {
+            return (Integer) key;
+        }
+        if (key instanceof List) {
+            long h = 0xcbf29ce484222325L;
+            for (Object element : (List<?>) key) {
+                h ^= element == null ? 0 : hashAny(element);
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+        throw new ClassCastException("no default 64 bit hash for " + key.getClass().getName() + ", pass a KeyHasher");
+    }
+}
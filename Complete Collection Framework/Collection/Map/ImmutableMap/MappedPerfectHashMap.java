@@ -0,0 +1,202 @@
+package Collection.Map.ImmutableMap;
+
+import Collection.Map.LinkedHashMap.ValueSerializer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+//A PerfectHashMap that lives in a memory mapped file (written by PerfectHashMap.writeTo or PerfectHashSet.writeTo)
+//Opening it only maps the file and reads the last 8 bytes : no key is hashed and nothing is copied to the heap,
+//the OS loads the pages of the file when they are first read, and several JVMs share the same pages
+//File layout (big endian ints):
+//  data           : for every slot, key length, key bytes, value bytes
+//  displacements  : n ints, the perfect hash (see PerfectHashIndex)
+//  offsets        : n + 1 ints, start of every slot in data (the last one is the end of data)
+//  n, MAGIC
+//A lookup is the same single probe as in PerfectHashMap, then the bytes of the key are compared with the key
+//of that slot right in the file (ValueSerializer.matches), no key object is created from the file
+//One mapping is limited to 2 GB. Read only, so safe to share between threads
+public final class MappedPerfectHashMap<K, V> extends AbstractMap<K, V> {
+    private static final int MAGIC = 0x50484D31;
+    private static final int FOOTER_BYTES = 2 * Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int n;
+    private final int displacementsStart;
+    private final int offsetsStart;
+    private final KeyHasher<? super K> hasher;
+    private final ValueSerializer<K> keySerializer;
+    private final ValueSerializer<V> valueSerializer;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    private MappedPerfectHashMap(ByteBuffer buffer, KeyHasher<? super K> hasher,
+                                 ValueSerializer<K> keySerializer, ValueSerializer<V> valueSerializer) {
+        int footer = buffer.limit() - FOOTER_BYTES;
+        if (footer < 0 || buffer.getInt(footer + Integer.BYTES) != MAGIC) {
+            throw new IllegalArgumentException("not a perfect hash table file");
+        }
+        this.buffer = buffer;
+        this.n = buffer.getInt(footer);
+        this.offsetsStart = footer - (n + 1) * Integer.BYTES;
+        this.displacementsStart = offsetsStart - n * Integer.BYTES;
+        this.hasher = hasher;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+    }
+
+    //the hasher must be the one the table was built with
+    public static <K, V> MappedPerfectHashMap<K, V> open(Path file, KeyHasher<? super K> hasher,
+                                                         ValueSerializer<K> keySerializer,
+                                                         ValueSerializer<V> valueSerializer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            //the mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedPerfectHashMap<>(buffer, hasher, keySerializer, valueSerializer);
+        }
+    }
+
+    //opens a file written by PerfectHashSet.writeTo
+    public static <E> Set<E> openSet(Path file, KeyHasher<? super E> hasher, ValueSerializer<E> serializer)
+            throws IOException {
+        ValueSerializer<Boolean> present = new ValueSerializer<>() {
+            @Override
+            public byte[] serialize(Boolean value) {
+                return new byte[0];
+            }
+
+            @Override
+            public Boolean deserialize(ByteBuffer bytes) {
+                return Boolean.TRUE;
+            }
+        };
+        return open(file, hasher, serializer, present).keySet();
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> void write(Path file, int[] displacements, Object[] keys, Object[] values,
+                             ValueSerializer<? super K> keySerializer,
+                             ValueSerializer<? super V> valueSerializer) throws IOException {
+        int n = keys.length;
+        int[] offsets = new int[n + 1];
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            long offset = 0;
+            for (int slot = 0; slot < n; slot++) {
+                offsets[slot] = (int) offset;
+                byte[] key = keySerializer.serialize((K) keys[slot]);
+                byte[] value = values == null ? new byte[0] : valueSerializer.serialize((V) values[slot]);
+                out.writeInt(key.length);
+                out.write(key);
+                out.write(value);
+                offset += Integer.BYTES + key.length + value.length;
+                if (offset + (2L * n + 3) * Integer.BYTES > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("a mapped table is limited to 2 GB");
+                }
+            }
+            offsets[n] = (int) offset;
+            for (int displacement : displacements) {
+                out.writeInt(displacement);
+            }
+            for (int start : offsets) {
+                out.writeInt(start);
+            }
+            out.writeInt(n);
+            out.writeInt(MAGIC);
+        }
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    @Override
+    public V get(Object key) {
+        int slot = slotOf(key);
+        return slot < 0 ? null : value(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slotOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int slotOf(Object key) {
+        if (key == null || n == 0) {
+            return -1;
+        }
+        long hash = hasher.hash((K) key);
+        int displacement = buffer.getInt(displacementsStart + PerfectHashIndex.bucket(hash, n) * Integer.BYTES);
+        if (displacement == 0) {
+            return -1;
+        }
+        int slot = PerfectHashIndex.slot(hash, n, displacement);
+        int offset = offset(slot);
+        return keySerializer.matches((K) key, buffer, offset + Integer.BYTES, buffer.getInt(offset)) ? slot : -1;
+    }
+
+    private int offset(int slot) {
+        return buffer.getInt(offsetsStart + slot * Integer.BYTES);
+    }
+
+    //absolute reads and slices only, the position of the shared buffer is never changed
+    private K key(int slot) {
+        int offset = offset(slot);
+        int keyLength = buffer.getInt(offset);
+        return keySerializer.deserialize(buffer.slice(offset + Integer.BYTES, keyLength));
+    }
+
+    private V value(int slot) {
+        int offset = offset(slot);
+        int valueStart = offset + Integer.BYTES + buffer.getInt(offset);
+        return valueSerializer.deserialize(buffer.slice(valueStart, offset(slot + 1) - valueStart));
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> set = entrySet;
+        if (set == null) {
+            set = entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new Iterator<>() {
+                        private int slot;
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot < n;
+                        }
+
+                        @Override
+                        public Map.Entry<K, V> next() {
+                            if (slot >= n) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<K, V> entry = new SimpleImmutableEntry<>(key(slot), value(slot));
+                            slot++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return n;
+                }
+            };
+        }
+        return set;
+    }
+}
@@ -0,0 +1,133 @@
+package Collection.Map.ImmutableMap;
+
+//Builds and evaluates a minimal perfect hash function : n keys are mapped to the slots 0 .. n - 1 without any collision,
+//so a table of exactly n slots needs only one probe per lookup ("hash and displace")
+//1. every key goes to one of n buckets by its hash, a bucket has one key on average
+//2. buckets with several keys, biggest first, search for a seed d that sends all of their keys to free slots
+//3. buckets with a single key just take the next free slot, the slot itself is stored (as -slot - 1)
+//The result is one int per bucket (the displacement), 0 for buckets without keys
+final class PerfectHashIndex {
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+    //a bucket that needs more seeds than this cannot be placed (in practice a few hundred tries are the worst case)
+    private static final int MAX_SEED = 1 << 24;
+
+    private PerfectHashIndex() {
+    }
+
+    static int bucket(long hash, int n) {
+        return range(mix(hash), n);
+    }
+
+    //slot of a key in a bucket with this displacement (not 0)
+    static int slot(long hash, int n, int displacement) {
+        if (displacement < 0) {
+            return -displacement - 1;
+        }
+        return range(mix(hash + displacement * SEED_STEP), n);
+    }
+
+    //displacement of every bucket for the hashes of n distinct keys
+    static int[] build(long[] hashes) {
+        int n = hashes.length;
+        int[] bucketSizes = new int[n];
+        for (long hash : hashes) {
+            bucketSizes[bucket(hash, n)]++;
+        }
+        //keys of bucket b are members[start[b]] .. members[start[b + 1] - 1]
+        int[] start = new int[n + 1];
+        int maxSize = 0;
+        for (int b = 0; b < n; b++) {
+            start[b + 1] = start[b] + bucketSizes[b];
+            maxSize = Math.max(maxSize, bucketSizes[b]);
+        }
+        int[] members = new int[n];
+        int[] fill = start.clone();
+        for (int i = 0; i < n; i++) {
+            members[fill[bucket(hashes[i], n)]++] = i;
+        }
+        //buckets sorted by size, biggest first (counting sort, the sizes are small numbers)
+        int[] bySize = new int[maxSize + 2];
+        for (int b = 0; b < n; b++) {
+            bySize[maxSize - bucketSizes[b] + 1]++;
+        }
+        for (int i = 1; i < bySize.length; i++) {
+            bySize[i] += bySize[i - 1];
+        }
+        int[] order = new int[n];
+        for (int b = 0; b < n; b++) {
+            order[bySize[maxSize - bucketSizes[b]]++] = b;
+        }
+
+        int[] displacements = new int[n];
+        boolean[] used = new boolean[n];
+        int[] chosen = new int[maxSize];
+        int freeSlot = 0;
+        for (int b : order) {
+            int size = bucketSizes[b];
+            if (size == 0) {
+                break;
+            }
+            if (size == 1) {
+                while (used[freeSlot]) {
+                    freeSlot++;
+                }
+                used[freeSlot] = true;
+                displacements[b] = -freeSlot - 1;
+                continue;
+            }
+            checkDistinct(hashes, members, start[b], size);
+            displacements[b] = placeBucket(hashes, members, start[b], size, used, chosen);
+        }
+        return displacements;
+    }
+
+    //tries the seeds 1, 2, 3, ... until every key of the bucket lands on a different free slot
+    private static int placeBucket(long[] hashes, int[] members, int from, int size, boolean[] used, int[] chosen) {
+        int n = hashes.length;
+        for (int d = 1; d <= MAX_SEED; d++) {
+            boolean fits = true;
+            for (int j = 0; j < size && fits; j++) {
+                int s = slot(hashes[members[from + j]], n, d);
+                if (used[s]) {
+                    fits = false;
+                }
+                for (int k = 0; k < j && fits; k++) {
+                    if (chosen[k] == s) {
+                        fits = false;
+                    }
+                }
+                chosen[j] = s;
+            }
+            if (fits) {
+                for (int j = 0; j < size; j++) {
+                    used[chosen[j]] = true;
+                }
+                return d;
+            }
+        }
+        throw new IllegalStateException("no seed found for a bucket of " + size + " keys");
+    }
+
+    //keys with the same 64 bit hash go to the same slot for every seed, they can never be separated
+    private static void checkDistinct(long[] hashes, int[] members, int from, int size) {
+        for (int j = 1; j < size; j++) {
+            for (int k = 0; k < j; k++) {
+                if (hashes[members[from + j]] == hashes[members[from + k]]) {
+                    throw new IllegalArgumentException("two keys have the same 64 bit hash, use a better KeyHasher");
+                }
+            }
+        }
+    }
+
+    //maps the upper 32 bits of the hash to 0 .. n - 1 without a division
+    private static int range(long hash, int n) {
+        return (int) (((hash >>> 32) * n) >>> 32);
+    }
+
+    //SplitMix64 finalizer
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,213 @@
+package Collection.Map.ImmutableMap;
+
+import Collection.Map.LinkedHashMap.ValueSerializer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+//Map.ofEntries is fine for small constant tables, but a large static lookup table (country codes, a SKU dictionary
+//with millions of entries) is still probed like any hash table, and HashMap spends a Node object on every entry
+//PerfectHashMap is built once from all of its entries and never changes, so it can use a minimal perfect hash
+//(see PerfectHashIndex) : every key has its own slot in 0 .. n - 1, without any collision
+//1. keys and values are two flat arrays of exactly n slots, plus one int per key for the perfect hash
+//2. get() is one hash, one array probe and one equals() (to reject keys that are not in the table)
+//3. writeTo() saves the table to a file that MappedPerfectHashMap memory maps at startup without hashing anything
+//Null keys and null values are not allowed. Immutable, so safe to share between threads
+public final class PerfectHashMap<K, V> extends AbstractMap<K, V> {
+    private final KeyHasher<? super K> hasher;
+    private final int[] displacements;
+    //keys[slot] and values[slot]
+    private final Object[] keys;
+    private final Object[] values;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    private PerfectHashMap(KeyHasher<? super K> hasher, int[] displacements, Object[] keys, Object[] values) {
+        this.hasher = hasher;
+        this.displacements = displacements;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    public static <K, V> PerfectHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        return copyOf(map, KeyHasher.defaultHasher());
+    }
+
+    public static <K, V> PerfectHashMap<K, V> copyOf(Map<? extends K, ? extends V> map, KeyHasher<? super K> hasher) {
+        int n = map.size();
+        Object[] entryKeys = new Object[n];
+        Object[] entryValues = new Object[n];
+        int i = 0;
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            entryKeys[i] = Objects.requireNonNull(entry.getKey());
+            entryValues[i] = Objects.requireNonNull(entry.getValue());
+            i++;
+        }
+        return build(hasher, entryKeys, entryValues);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PerfectHashMap<K, V> build(KeyHasher<? super K> hasher, Object[] entryKeys, Object[] entryValues) {
+        int n = entryKeys.length;
+        long[] hashes = new long[n];
+        for (int i = 0; i < n; i++) {
+            hashes[i] = hasher.hash((K) entryKeys[i]);
+        }
+        int[] displacements = PerfectHashIndex.build(hashes);
+        Object[] keys = new Object[n];
+        Object[] values = entryValues == null ? null : new Object[n];
+        for (int i = 0; i < n; i++) {
+            int slot = PerfectHashIndex.slot(hashes[i], n, displacements[PerfectHashIndex.bucket(hashes[i], n)]);
+            keys[slot] = entryKeys[i];
+            if (values != null) {
+                values[slot] = entryValues[i];
+            }
+        }
+        return new PerfectHashMap<>(hasher, displacements, keys, values);
+    }
+
+    public static void main(String[] args) throws IOException {
+        PerfectHashMap.Builder<String, String> builder = new PerfectHashMap.Builder<>();
+        builder.put("IN", "India").put("US", "United States").put("DE", "Germany").put("JP", "Japan");
+        PerfectHashMap<String, String> countries = builder.build();
+        System.out.println(countries.get("DE"));//Germany
+        System.out.println(countries.get("FR"));//null
+        //countries.put("FR", "France"); //UnsupportedOperationException
+
+        //a SKU dictionary with a million entries, written once and memory mapped at startup
+        Map<String, Integer> stock = new HashMap<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            stock.put("SKU-" + i, i % 500);
+        }
+        long start = System.nanoTime();
+        PerfectHashMap<String, Integer> skus = PerfectHashMap.copyOf(stock);
+        System.out.println("built in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        Path file = Path.of(System.getProperty("java.io.tmpdir"), "skus.phm");
+        skus.writeTo(file, ValueSerializer.utf8(), ValueSerializer.int32());
+        start = System.nanoTime();
+        MappedPerfectHashMap<String, Integer> mapped =
+                MappedPerfectHashMap.open(file, KeyHasher.defaultHasher(), ValueSerializer.utf8(), ValueSerializer.int32());
+        System.out.println("opened in " + (System.nanoTime() - start) / 1_000 + " us");
+        System.out.println(mapped.get("SKU-123456"));//456
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public V get(Object key) {
+        int slot = slotOf(key);
+        @SuppressWarnings("unchecked")
+        V value = slot < 0 ? null : (V) values[slot];
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slotOf(key) >= 0;
+    }
+
+    //slot of the key, or -1 if the key is not in the table
+    @SuppressWarnings("unchecked")
+    int slotOf(Object key) {
+        int n = keys.length;
+        if (key == null || n == 0) {
+            return -1;
+        }
+        long hash = hasher.hash((K) key);
+        int displacement = displacements[PerfectHashIndex.bucket(hash, n)];
+        if (displacement == 0) {
+            return -1;
+        }
+        int slot = PerfectHashIndex.slot(hash, n, displacement);
+        return key.equals(keys[slot]) ? slot : -1;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> set = entrySet;
+        if (set == null) {
+            set = entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new Iterator<>() {
+                        private int slot;
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot < keys.length;
+                        }
+
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        public Map.Entry<K, V> next() {
+                            if (slot >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<K, V> entry = new SimpleImmutableEntry<>((K) keys[slot], (V) values[slot]);
+                            slot++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+        return set;
+    }
+
+    //saves the table in the format of MappedPerfectHashMap, the same KeyHasher must be used to open it
+    public void writeTo(Path file, ValueSerializer<? super K> keySerializer, ValueSerializer<? super V> valueSerializer)
+            throws IOException {
+        MappedPerfectHashMap.write(file, displacements, keys, values, keySerializer, valueSerializer);
+    }
+
+    //keys in slot order, used by PerfectHashSet (which is a PerfectHashMap without values)
+    Object[] keys() {
+        return keys;
+    }
+
+    //Collects the entries of a table, a key that is put twice keeps its last value
+    public static final class Builder<K, V> {
+        private final KeyHasher<? super K> hasher;
+        private final Map<K, V> entries = new LinkedHashMap<>();
+
+        public Builder() {
+            this(KeyHasher.defaultHasher());
+        }
+
+        public Builder(KeyHasher<? super K> hasher) {
+            this.hasher = hasher;
+        }
+
+        public Builder<K, V> put(K key, V value) {
+            entries.put(Objects.requireNonNull(key), Objects.requireNonNull(value));
+            return this;
+        }
+
+        public Builder<K, V> putAll(Map<? extends K, ? extends V> map) {
+            for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        public PerfectHashMap<K, V> build() {
+            return copyOf(entries, hasher);
+        }
+    }
+}
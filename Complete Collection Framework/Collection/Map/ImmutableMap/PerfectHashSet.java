@@ -0,0 +1,85 @@
+package Collection.Map.ImmutableMap;
+
+import Collection.Map.LinkedHashMap.ValueSerializer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+//Set.of for large static tables : the keys of a PerfectHashMap without the values array
+//contains() is one hash, one array probe and one equals()
+//Null elements are not allowed. Immutable, so safe to share between threads
+public final class PerfectHashSet<E> extends AbstractSet<E> {
+    private final PerfectHashMap<E, ?> table;
+
+    private PerfectHashSet(PerfectHashMap<E, ?> table) {
+        this.table = table;
+    }
+
+    public static <E> PerfectHashSet<E> copyOf(Collection<? extends E> elements) {
+        return copyOf(elements, KeyHasher.defaultHasher());
+    }
+
+    //duplicates in the collection are kept only once
+    public static <E> PerfectHashSet<E> copyOf(Collection<? extends E> elements, KeyHasher<? super E> hasher) {
+        Set<E> distinct = new LinkedHashSet<>();
+        for (E element : elements) {
+            distinct.add(Objects.requireNonNull(element));
+        }
+        return new PerfectHashSet<>(PerfectHashMap.build(hasher, distinct.toArray(), null));
+    }
+
+    public static void main(String[] args) throws IOException {
+        PerfectHashSet<String> currencies = PerfectHashSet.copyOf(Set.of("INR", "USD", "EUR", "JPY"));
+        System.out.println(currencies.contains("EUR"));//true
+        System.out.println(currencies.contains("GBP"));//false
+
+        Path file = Path.of(System.getProperty("java.io.tmpdir"), "currencies.phs");
+        currencies.writeTo(file, ValueSerializer.utf8());
+        Set<String> mapped = MappedPerfectHashMap.openSet(file, KeyHasher.defaultHasher(), ValueSerializer.utf8());
+        System.out.println(mapped.contains("JPY"));//true
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return table.containsKey(o);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        Object[] keys = table.keys();
+        return new Iterator<>() {
+            private int slot;
+
+            @Override
+            public boolean hasNext() {
+                return slot < keys.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (slot >= keys.length) {
+                    throw new NoSuchElementException();
+                }
+                return (E) keys[slot++];
+            }
+        };
+    }
+
+    //saves the set in the format of MappedPerfectHashMap (with empty values), open it with MappedPerfectHashMap.openSet
+    public void writeTo(Path file, ValueSerializer<? super E> serializer) throws IOException {
+        table.writeTo(file, serializer, null);
+    }
+}
@@ -0,0 +1,504 @@
+package Collection.Map.ImmutableMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+//Collections.unmodifiableMap is only a view (the map behind it can still change) and Map.of / Map.copyOf are full copies,
+//so making a new version of an immutable map with one more entry costs O(n)
+//PersistentHashMap is an immutable map where with() and without() return a NEW map and leave the old one as it is,
+//but the new map shares almost all of its memory with the old one (structural sharing):
+//1. the map is a hash array mapped trie (HAMT) : a tree with up to 32 children per node, picked by 5 bits of the hash
+//   (level 0 uses bits 0-4, level 1 bits 5-9, ...), so it is at most 7 levels deep and usually only 3 or 4
+//2. a node only stores the slots that are used, a 32 bit bitmap tells which ones (bitCount gives the array index)
+//3. with() copies only the nodes on the path from the root to the changed slot (log32(n) small arrays),
+//   every other node is shared between the old and the new map
+//4. keys with exactly the same hash end up together in a collision node
+//For many changes at once, toTransient() gives a mutable builder : nodes it created itself are changed in place
+//instead of being copied again, and persistent() turns it back into an immutable map in O(1)
+//Null keys and null values are not allowed (like Map.of). Immutable, so safe to share between threads
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+    //7 bitmap levels (5 bits each for a 32 bit hash) plus one collision node
+    private static final int MAX_DEPTH = 8;
+
+    private final Node root;
+    private final int size;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    public static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        Transient<K, V> builder = PersistentHashMap.<K, V>empty().toTransient();
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue());
+        }
+        return builder.persistent();
+    }
+
+    public static void main(String[] args) {
+        //configuration snapshots : every version stays valid and unchanged
+        PersistentHashMap<String, Integer> v1 = PersistentHashMap.<String, Integer>empty().with("a", 1).with("b", 2);
+        PersistentHashMap<String, Integer> v2 = v1.with("c", 3);
+        PersistentHashMap<String, Integer> v3 = v2.without("a");
+        System.out.println(v1);//{a=1, b=2}
+        System.out.println(v2);//{a=1, b=2, c=3}
+        System.out.println(v3);//{b=2, c=3}
+        //v3.put("d", 4); //UnsupportedOperationException, like ImmutableMapDemo
+
+        //batch edit : build the next snapshot without copying a node more than once
+        PersistentHashMap.Transient<String, Integer> builder = v3.toTransient();
+        for (int i = 0; i < 1000; i++) {
+            builder.put("key" + i, i);
+        }
+        PersistentHashMap<String, Integer> v4 = builder.persistent();
+        System.out.println(v4.size());//1002
+        System.out.println(v3.size());//2, the old snapshot did not change
+    }
+
+    //---------------------------------------------------------------- reads
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (key == null || root == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        V value = (V) root.find(0, hash(key), key);
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> set = entrySet;
+        if (set == null) {
+            set = entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new EntryIterator<>(root);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return set;
+    }
+
+    //---------------------------------------------------------------- new versions
+
+    //a new map with the key mapped to the value, this map is not changed
+    public PersistentHashMap<K, V> with(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Change change = new Change();
+        Node newRoot = (root == null ? BitmapNode.EMPTY : root).put(null, 0, hash(key), key, value, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, change.added ? size + 1 : size);
+    }
+
+    //a new map without the key, this map is not changed
+    public PersistentHashMap<K, V> without(Object key) {
+        if (key == null || root == null) {
+            return this;
+        }
+        Change change = new Change();
+        Node newRoot = root.remove(null, 0, hash(key), key, change);
+        if (!change.removed) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    public Transient<K, V> toTransient() {
+        return new Transient<>(root, size);
+    }
+
+    private static int hash(Object key) {
+        return key.hashCode();
+    }
+
+    //A mutable builder that starts from a PersistentHashMap
+    //Every node it copies is marked with its own edit token, and marked nodes are changed in place by later edits,
+    //so a batch of n changes copies each node at most once. The original map is never changed
+    //Not thread safe, and it cannot be used any more after persistent()
+    public static final class Transient<K, V> {
+        private Object edit = new Object();
+        private Node root;
+        private int size;
+
+        private Transient(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        public Transient<K, V> put(K key, V value) {
+            ensureEditable();
+            Objects.requireNonNull(key);
+            Objects.requireNonNull(value);
+            Change change = new Change();
+            root = (root == null ? BitmapNode.EMPTY : root).put(edit, 0, hash(key), key, value, change);
+            if (change.added) {
+                size++;
+            }
+            return this;
+        }
+
+        public Transient<K, V> remove(Object key) {
+            ensureEditable();
+            if (key == null || root == null) {
+                return this;
+            }
+            Change change = new Change();
+            root = root.remove(edit, 0, hash(key), key, change);
+            if (change.removed) {
+                size--;
+            }
+            return this;
+        }
+
+        public V get(Object key) {
+            ensureEditable();
+            if (key == null || root == null) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            V value = (V) root.find(0, hash(key), key);
+            return value;
+        }
+
+        public int size() {
+            ensureEditable();
+            return size;
+        }
+
+        //the builder gives up its edit token, so nothing can change the nodes of the returned map any more
+        public PersistentHashMap<K, V> persistent() {
+            ensureEditable();
+            edit = null;
+            return size == 0 ? empty() : new PersistentHashMap<>(root, size);
+        }
+
+        private void ensureEditable() {
+            if (edit == null) {
+                throw new IllegalStateException("persistent() was already called on this transient");
+            }
+        }
+    }
+
+    //---------------------------------------------------------------- trie nodes
+
+    //what an update did, so that the map knows its new size
+    private static final class Change {
+        boolean added;
+        boolean removed;
+    }
+
+    //array holds key/value pairs : array[2 * i] is a key, or null if array[2 * i + 1] is a child node
+    private abstract static class Node {
+        //the transient that owns this node and may change it in place, null for nodes of persistent maps
+        final Object edit;
+        Object[] array;
+
+        Node(Object edit, Object[] array) {
+            this.edit = edit;
+            this.array = array;
+        }
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node put(Object edit, int shift, int hash, Object key, Object value, Change change);
+
+        //returns null when the node became empty
+        abstract Node remove(Object edit, int shift, int hash, Object key, Change change);
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        int bitmap;
+
+        BitmapNode(Object edit, int bitmap, Object[] array) {
+            super(edit, array);
+            this.bitmap = bitmap;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & 31);
+        }
+
+        //index of the pair for the bit : number of used slots below it
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(shift + 5, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : null;
+        }
+
+        @Override
+        Node put(Object edit, int shift, int hash, Object key, Object value, Change change) {
+            int bit = bit(hash, shift);
+            int i = 2 * index(bit);
+            if ((bitmap & bit) != 0) {
+                Object k = array[i];
+                Object v = array[i + 1];
+                if (k == null) {
+                    Node child = ((Node) v).put(edit, shift + 5, hash, key, value, change);
+                    return child == v ? this : set(edit, i + 1, child);
+                }
+                if (key.equals(k)) {
+                    return v == value ? this : set(edit, i + 1, value);
+                }
+                //two different keys want the same slot : both go one level down
+                change.added = true;
+                Node child = createNode(edit, shift + 5, k, v, key, value, hash);
+                BitmapNode node = editable(edit);
+                node.array[i] = null;
+                node.array[i + 1] = child;
+                return node;
+            }
+            change.added = true;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            newArray[i] = key;
+            newArray[i + 1] = value;
+            System.arraycopy(array, i, newArray, i + 2, array.length - i);
+            if (edit != null && this.edit == edit) {
+                array = newArray;
+                bitmap |= bit;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap | bit, newArray);
+        }
+
+        @Override
+        Node remove(Object edit, int shift, int hash, Object key, Change change) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).remove(edit, shift + 5, hash, key, change);
+                if (child == v) {
+                    return this;
+                }
+                if (child != null) {
+                    return set(edit, i + 1, child);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            } else {
+                change.removed = true;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            if (edit != null && this.edit == edit) {
+                array = newArray;
+                bitmap ^= bit;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap ^ bit, newArray);
+        }
+
+        //this node if the transient owns it, otherwise a copy that it owns (or a new persistent node)
+        private BitmapNode editable(Object edit) {
+            if (edit != null && this.edit == edit) {
+                return this;
+            }
+            return new BitmapNode(edit, bitmap, array.clone());
+        }
+
+        private BitmapNode set(Object edit, int i, Object value) {
+            BitmapNode node = editable(edit);
+            node.array[i] = value;
+            return node;
+        }
+    }
+
+    //keys that have exactly the same 32 bit hash, searched one by one
+    private static final class CollisionNode extends Node {
+        final int hash;
+
+        CollisionNode(Object edit, int hash, Object[] array) {
+            super(edit, array);
+            this.hash = hash;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) {
+                return null;
+            }
+            int i = indexOf(key);
+            return i < 0 ? null : array[i + 1];
+        }
+
+        @Override
+        Node put(Object edit, int shift, int hash, Object key, Object value, Change change) {
+            if (hash != this.hash) {
+                //a key with another hash reached this slot : put this node one level down in a bitmap node
+                BitmapNode parent = new BitmapNode(edit, BitmapNode.bit(this.hash, shift), new Object[]{null, this});
+                return parent.put(edit, shift, hash, key, value, change);
+            }
+            int i = indexOf(key);
+            Object[] newArray;
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                newArray = array.clone();
+                newArray[i + 1] = value;
+            } else {
+                change.added = true;
+                newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, array.length);
+                newArray[array.length] = key;
+                newArray[array.length + 1] = value;
+            }
+            if (edit != null && this.edit == edit) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newArray);
+        }
+
+        @Override
+        Node remove(Object edit, int shift, int hash, Object key, Change change) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i < 0) {
+                return this;
+            }
+            change.removed = true;
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            if (edit != null && this.edit == edit) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newArray);
+        }
+    }
+
+    //node for two entries that ended up in the same slot at the given level
+    private static Node createNode(Object edit, int shift, Object key1, Object value1, Object key2, Object value2, int hash2) {
+        int hash1 = hash(key1);
+        if (hash1 == hash2) {
+            return new CollisionNode(edit, hash1, new Object[]{key1, value1, key2, value2});
+        }
+        Change ignored = new Change();
+        return BitmapNode.EMPTY
+                .put(edit, shift, hash1, key1, value1, ignored)
+                .put(edit, shift, hash2, key2, value2, ignored);
+    }
+
+    //depth first walk over the pairs of every node, with an explicit stack instead of recursion
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth;
+        private Map.Entry<K, V> next;
+
+        EntryIterator(Node root) {
+            if (root == null) {
+                depth = -1;
+            } else {
+                arrays[0] = root.array;
+            }
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int position = positions[depth];
+                if (position >= array.length) {
+                    arrays[depth] = null;
+                    positions[depth] = 0;
+                    depth--;
+                    continue;
+                }
+                positions[depth] = position + 2;
+                if (array[position] != null) {
+                    next = new SimpleImmutableEntry<>((K) array[position], (V) array[position + 1]);
+                    return;
+                }
+                depth++;
+                arrays[depth] = ((Node) array[position + 1]).array;
+            }
+            next = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = next;
+            advance();
+            return entry;
+        }
+    }
+}
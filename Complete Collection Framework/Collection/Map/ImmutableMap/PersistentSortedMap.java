@@ -0,0 +1,476 @@
+package Collection.Map.ImmutableMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+
+//The sorted counterpart of PersistentHashMap : an immutable map in key order where with() and without()
+//return a new map in O(log n) and the old map stays valid
+//1. it is an AVL tree (a balanced binary search tree) whose nodes are never changed once the map is published
+//2. with() / without() copy only the nodes on the path from the root to the key (path copying), plus the few nodes
+//   touched by the rotations that keep the tree balanced, every other node is shared with the old map
+//3. toTransient() gives a mutable builder : nodes it created itself are changed in place, so a batch of edits
+//   does not copy the same path again and again, and persistent() turns it back into an immutable map in O(1)
+//4. copyOf(SortedMap) builds a perfectly balanced tree from already sorted entries in O(n)
+//Null keys and null values are not allowed. Immutable, so safe to share between threads
+public final class PersistentSortedMap<K, V> extends AbstractMap<K, V> {
+    private static final PersistentSortedMap<?, ?> EMPTY = new PersistentSortedMap<>(null, null, 0);
+
+    private final Comparator<? super K> comparator;
+    private final Node root;
+    private final int size;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    private PersistentSortedMap(Comparator<? super K> comparator, Node root, int size) {
+        this.comparator = comparator;
+        this.root = root;
+        this.size = size;
+    }
+
+    //empty map in the natural order of the keys
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<? super K>, V> PersistentSortedMap<K, V> empty() {
+        return (PersistentSortedMap<K, V>) EMPTY;
+    }
+
+    public static <K, V> PersistentSortedMap<K, V> empty(Comparator<? super K> comparator) {
+        return new PersistentSortedMap<>(comparator, null, 0);
+    }
+
+    //same order as the given map, the tree is built bottom up from the sorted entries without any rotation
+    public static <K, V> PersistentSortedMap<K, V> copyOf(SortedMap<K, ? extends V> map) {
+        Iterator<? extends Map.Entry<K, ? extends V>> entries = map.entrySet().iterator();
+        Node root = buildBalanced(entries, map.size());
+        return new PersistentSortedMap<>(map.comparator(), root, map.size());
+    }
+
+    public static void main(String[] args) {
+        PersistentSortedMap<String, Integer> v1 = PersistentSortedMap.<String, Integer>empty().with("b", 2).with("a", 1);
+        PersistentSortedMap<String, Integer> v2 = v1.with("c", 3);
+        PersistentSortedMap<String, Integer> v3 = v2.without("a");
+        System.out.println(v1);//{a=1, b=2}
+        System.out.println(v2);//{a=1, b=2, c=3}
+        System.out.println(v3);//{b=2, c=3}
+        System.out.println(v2.firstKey() + " " + v2.ceilingKey("bb"));//a c
+
+        //batch edit, then publish the new version
+        PersistentSortedMap.Transient<String, Integer> builder = v3.toTransient();
+        builder.put("d", 4).put("e", 5).remove("b");
+        PersistentSortedMap<String, Integer> v4 = builder.persistent();
+        System.out.println(v4);//{c=3, d=4, e=5}
+        System.out.println(v3);//{b=2, c=3}, unchanged
+    }
+
+    //---------------------------------------------------------------- reads
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node node = find(root, key);
+        return node == null ? null : value(node);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(root, key) != null;
+    }
+
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    public K firstKey() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node node = root;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return key(node);
+    }
+
+    public K lastKey() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return key(node);
+    }
+
+    //greatest key <= the given key, or null
+    public K floorKey(K key) {
+        return closest(key, true, true);
+    }
+
+    //smallest key >= the given key, or null
+    public K ceilingKey(K key) {
+        return closest(key, false, true);
+    }
+
+    //greatest key < the given key, or null
+    public K lowerKey(K key) {
+        return closest(key, true, false);
+    }
+
+    //smallest key > the given key, or null
+    public K higherKey(K key) {
+        return closest(key, false, false);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> set = entrySet;
+        if (set == null) {
+            set = entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new EntryIterator<>(root);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return set;
+    }
+
+    //---------------------------------------------------------------- new versions
+
+    //a new map with the key mapped to the value, this map is not changed
+    public PersistentSortedMap<K, V> with(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Change change = new Change();
+        Node newRoot = insert(null, root, key, value, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentSortedMap<>(comparator, newRoot, change.added ? size + 1 : size);
+    }
+
+    //a new map without the key, this map is not changed
+    public PersistentSortedMap<K, V> without(Object key) {
+        if (key == null) {
+            return this;
+        }
+        Change change = new Change();
+        Node newRoot = delete(null, root, key, change);
+        if (!change.removed) {
+            return this;
+        }
+        return new PersistentSortedMap<>(comparator, newRoot, size - 1);
+    }
+
+    public Transient<K, V> toTransient() {
+        return new Transient<>(this);
+    }
+
+    //A mutable builder that starts from a PersistentSortedMap, works like PersistentHashMap.Transient
+    //Not thread safe, and it cannot be used any more after persistent()
+    public static final class Transient<K, V> {
+        private final PersistentSortedMap<K, V> owner;
+        private Object edit = new Object();
+        private Node root;
+        private int size;
+
+        private Transient(PersistentSortedMap<K, V> map) {
+            this.owner = map;
+            this.root = map.root;
+            this.size = map.size;
+        }
+
+        public Transient<K, V> put(K key, V value) {
+            ensureEditable();
+            Objects.requireNonNull(key);
+            Objects.requireNonNull(value);
+            Change change = new Change();
+            root = owner.insert(edit, root, key, value, change);
+            if (change.added) {
+                size++;
+            }
+            return this;
+        }
+
+        public Transient<K, V> remove(Object key) {
+            ensureEditable();
+            if (key == null) {
+                return this;
+            }
+            Change change = new Change();
+            root = owner.delete(edit, root, key, change);
+            if (change.removed) {
+                size--;
+            }
+            return this;
+        }
+
+        public V get(Object key) {
+            ensureEditable();
+            Node node = owner.find(root, key);
+            return node == null ? null : owner.value(node);
+        }
+
+        public int size() {
+            ensureEditable();
+            return size;
+        }
+
+        public PersistentSortedMap<K, V> persistent() {
+            ensureEditable();
+            edit = null;
+            return new PersistentSortedMap<>(owner.comparator, root, size);
+        }
+
+        private void ensureEditable() {
+            if (edit == null) {
+                throw new IllegalStateException("persistent() was already called on this transient");
+            }
+        }
+    }
+
+    //---------------------------------------------------------------- tree internals
+
+    private static final class Change {
+        boolean added;
+        boolean removed;
+    }
+
+    //fields are only changed by the transient that owns the node (edit), nodes of a published map never change
+    private static final class Node {
+        final Object edit;
+        Object key;
+        Object value;
+        Node left;
+        Node right;
+        int height;
+
+        Node(Object edit, Object key, Object value, Node left, Node right) {
+            this.edit = edit;
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object a, Object b) {
+        return comparator == null ? ((Comparable<Object>) a).compareTo(b) : comparator.compare((K) a, (K) b);
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(Node node) {
+        return (K) node.key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(Node node) {
+        return (V) node.value;
+    }
+
+    private Node find(Node node, Object key) {
+        if (key == null) {
+            return null;
+        }
+        while (node != null) {
+            int c = compare(key, node.key);
+            if (c == 0) {
+                return node;
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    private K closest(K key, boolean below, boolean inclusive) {
+        Objects.requireNonNull(key);
+        Node best = null;
+        Node node = root;
+        while (node != null) {
+            int c = compare(key, node.key);
+            if (c == 0 && inclusive) {
+                return key(node);
+            }
+            if (below ? c > 0 : c < 0) {
+                best = node;
+                node = below ? node.right : node.left;
+            } else {
+                node = below ? node.left : node.right;
+            }
+        }
+        return best == null ? null : key(best);
+    }
+
+    //a node with these fields : the given node itself if the transient owns it, otherwise a new node
+    private static Node node(Object edit, Node reuse, Object key, Object value, Node left, Node right) {
+        if (edit != null && reuse != null && reuse.edit == edit) {
+            reuse.key = key;
+            reuse.value = value;
+            reuse.left = left;
+            reuse.right = right;
+            reuse.height = Math.max(height(left), height(right)) + 1;
+            return reuse;
+        }
+        return new Node(edit, key, value, left, right);
+    }
+
+    //like node(), but rotates when one side is more than one level higher than the other (AVL rule)
+    private static Node balance(Object edit, Node reuse, Object key, Object value, Node left, Node right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            if (height(left.left) >= height(left.right)) {
+                //single right rotation
+                return node(edit, left, left.key, left.value, left.left,
+                        node(edit, reuse, key, value, left.right, right));
+            }
+            //double rotation : left.right becomes the top
+            Node middle = left.right;
+            return node(edit, middle, middle.key, middle.value,
+                    node(edit, left, left.key, left.value, left.left, middle.left),
+                    node(edit, reuse, key, value, middle.right, right));
+        }
+        if (rightHeight > leftHeight + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return node(edit, right, right.key, right.value,
+                        node(edit, reuse, key, value, left, right.left), right.right);
+            }
+            Node middle = right.left;
+            return node(edit, middle, middle.key, middle.value,
+                    node(edit, reuse, key, value, left, middle.left),
+                    node(edit, right, right.key, right.value, middle.right, right.right));
+        }
+        return node(edit, reuse, key, value, left, right);
+    }
+
+    //a child that the transient owns can have changed in place (same reference, different height),
+    //so only a child that is the same node and not owned by the transient really is unchanged
+    private static boolean unchanged(Object edit, Node before, Node after) {
+        return after == before && (edit == null || after == null || after.edit != edit);
+    }
+
+    private Node insert(Object edit, Node node, Object key, Object value, Change change) {
+        if (node == null) {
+            if (comparator == null) {
+                //fail fast for keys that are not Comparable
+                compare(key, key);
+            }
+            change.added = true;
+            return new Node(edit, key, value, null, null);
+        }
+        int c = compare(key, node.key);
+        if (c < 0) {
+            Node left = insert(edit, node.left, key, value, change);
+            return unchanged(edit, node.left, left) ? node : balance(edit, node, node.key, node.value, left, node.right);
+        }
+        if (c > 0) {
+            Node right = insert(edit, node.right, key, value, change);
+            return unchanged(edit, node.right, right) ? node : balance(edit, node, node.key, node.value, node.left, right);
+        }
+        return node.value == value ? node : node(edit, node, node.key, value, node.left, node.right);
+    }
+
+    private Node delete(Object edit, Node node, Object key, Change change) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(key, node.key);
+        if (c < 0) {
+            Node left = delete(edit, node.left, key, change);
+            return unchanged(edit, node.left, left) ? node : balance(edit, node, node.key, node.value, left, node.right);
+        }
+        if (c > 0) {
+            Node right = delete(edit, node.right, key, change);
+            return unchanged(edit, node.right, right) ? node : balance(edit, node, node.key, node.value, node.left, right);
+        }
+        change.removed = true;
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        //two children : the smallest key of the right subtree takes the place of the removed key
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        Object successorKey = successor.key;
+        Object successorValue = successor.value;
+        Node right = deleteMin(edit, node.right);
+        return balance(edit, node, successorKey, successorValue, node.left, right);
+    }
+
+    private static Node deleteMin(Object edit, Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(edit, node, node.key, node.value, deleteMin(edit, node.left), node.right);
+    }
+
+    //middle entry becomes the root, the entries before it the left subtree and the entries after it the right subtree
+    private static Node buildBalanced(Iterator<? extends Map.Entry<?, ?>> entries, int count) {
+        if (count == 0) {
+            return null;
+        }
+        int leftCount = (count - 1) / 2;
+        Node left = buildBalanced(entries, leftCount);
+        Map.Entry<?, ?> entry = entries.next();
+        Node right = buildBalanced(entries, count - 1 - leftCount);
+        return new Node(null, Objects.requireNonNull(entry.getKey()), Objects.requireNonNull(entry.getValue()), left, right);
+    }
+
+    //in order walk with an explicit stack of the nodes whose left side was already visited
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final ArrayDeque<Node> stack = new ArrayDeque<>();
+
+        EntryIterator(Node root) {
+            pushLeftSpine(root);
+        }
+
+        private void pushLeftSpine(Node node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node node = stack.pop();
+            pushLeftSpine(node.right);
+            return new SimpleImmutableEntry<>((K) node.key, (V) node.value);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package Collection.Map.LegacyHashTable;
+
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+//Every method of Hashtable is synchronized on the table itself, so two threads can never even read at the same time,
+//and the more threads put into it, the more time they spend waiting for that one lock
+//ConcurrentHashtable IS a Hashtable (and a Dictionary), so legacy code only has to change the "new Hashtable<>()" line
+//1. every method is passed to a ConcurrentHashMap : reads never lock, writes lock or CAS a single bin
+//2. same null rules as Hashtable : null keys and null values throw NullPointerException
+//3. keys() and elements() are Enumerations like before, but they and the iterators of the views are weakly consistent
+//   instead of fail fast (no ConcurrentModificationException while other threads write)
+//The one thing that does not carry over : code that does synchronized (table) { check then put } to make
+//several calls atomic is no longer protected against other threads, use putIfAbsent(), compute() or merge() instead
+public class ConcurrentHashtable<K, V> extends Hashtable<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    //the table inherited from Hashtable stays empty, all entries live here (and are serialized from here)
+    private final ConcurrentHashMap<K, V> map;
+
+    public ConcurrentHashtable() {
+        super(1);
+        this.map = new ConcurrentHashMap<>();
+    }
+
+    public ConcurrentHashtable(int initialCapacity) {
+        super(1);
+        this.map = new ConcurrentHashMap<>(initialCapacity);
+    }
+
+    public ConcurrentHashtable(Map<? extends K, ? extends V> map) {
+        super(1);
+        this.map = new ConcurrentHashMap<>(Math.max(16, map.size() * 2));
+        putAll(map);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        //same workload as HashTableDemo, only the constructor changes
+        Hashtable<Integer, String> hashtable = new ConcurrentHashtable<>();
+        hashtable.put(1, "One");
+        hashtable.put(2, "Two");
+        System.out.println(hashtable.get(1));//One
+        System.out.println(hashtable.contains("Two"));//true
+        Enumeration<Integer> keys = hashtable.keys();
+        while (keys.hasMoreElements()) {
+            System.out.print(keys.nextElement() + " ");//1 2
+        }
+        System.out.println();
+        try {
+            hashtable.put(3, null);
+        } catch (NullPointerException e) {
+            System.out.println("null values are not allowed");//same as Hashtable
+        }
+
+        //several writer threads put and read the same keys, Hashtable vs ConcurrentHashtable
+        //on a machine with few cores both stay close, with more cores Hashtable stays flat while
+        //ConcurrentHashtable keeps growing until it runs out of cores
+        int operations = 4_000_000;
+        for (int threads = 2; threads <= 64; threads *= 2) {
+            long legacy = throughput(new Hashtable<>(), threads, operations);
+            long striped = throughput(new ConcurrentHashtable<>(), threads, operations);
+            System.out.println(threads + " threads : Hashtable " + legacy + " ops/ms, ConcurrentHashtable " + striped + " ops/ms");
+        }
+    }
+
+    //operations split between the threads, every thread writes a key and reads it back
+    //the 65536 keys are put once before the clock starts, so the table never grows while it is measured
+    private static long throughput(Hashtable<Integer, Integer> table, int threads, int operations)
+            throws InterruptedException {
+        Integer[] keys = new Integer[1 << 16];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+            table.put(keys[i], keys[i]);
+        }
+        int perThread = operations / threads;
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    Integer key = keys[(offset + i) & (keys.length - 1)];
+                    table.put(key, key);
+                    table.get(key);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        return (long) perThread * threads / millis;
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public Enumeration<K> keys() {
+        return map.keys();
+    }
+
+    @Override
+    public Enumeration<V> elements() {
+        return map.elements();
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return map.contains(value);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        return map.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return map.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return map.remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        map.putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    //Hashtable grows its own table here, the ConcurrentHashMap resizes itself
+    @Override
+    protected void rehash() {
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return map.keySet();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return map.entrySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return map.values();
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return map.putIfAbsent(key, value);
+    }
+
+    //ConcurrentHashMap returns false for a null value, Hashtable throws
+    @Override
+    public boolean remove(Object key, Object value) {
+        Objects.requireNonNull(value);
+        return map.remove(key, value);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        return map.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        return map.replace(key, value);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        return map.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return map.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return map.compute(key, remappingFunction);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        return map.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        map.replaceAll(function);
+    }
+
+    //a shallow copy like Hashtable.clone(), super.clone() would share the same ConcurrentHashMap
+    @Override
+    public Object clone() {
+        return new ConcurrentHashtable<>(map);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || map.equals(o);
+    }
+
+    //a table can contain itself as a key or value, then map.hashCode() and map.toString() would call this method
+    //again and again until the stack overflows. Like Hashtable, the table itself counts as 0 and prints as "(this Map)"
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            hash += (key == this ? 0 : key.hashCode()) ^ (value == this ? 0 : value.hashCode());
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            sb.append(key == this ? "(this Map)" : key).append('=').append(value == this ? "(this Map)" : value);
+        }
+        return sb.append('}').toString();
+    }
+}
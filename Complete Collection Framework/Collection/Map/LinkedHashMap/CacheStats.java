@@ -0,0 +1,115 @@
+package Collection.Map.LinkedHashMap;
+
+//Immutable snapshot of the statistics of one cache, taken by StatsCounter.snapshot()
+//The counters keep growing, so to look at one interval take two snapshots and subtract them with minus()
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTimeNanos;
+    private final long evictionCount;
+    private final int size;
+    private final int capacity;
+
+    CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+               long totalLoadTimeNanos, long evictionCount, int size, int capacity) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    public long hitCount() {
+        return hitCount;
+    }
+
+    public long missCount() {
+        return missCount;
+    }
+
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    //1.0 when there were no requests yet, an empty cache did not miss anything
+    public double hitRate() {
+        long requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public double missRate() {
+        long requests = requestCount();
+        return requests == 0 ? 0.0 : (double) missCount / requests;
+    }
+
+    public long loadCount() {
+        return loadSuccessCount + loadFailureCount;
+    }
+
+    public long loadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long loadFailureCount() {
+        return loadFailureCount;
+    }
+
+    public long totalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    //average time a caller waited for a missing value to be loaded
+    public double averageLoadPenaltyNanos() {
+        long loads = loadCount();
+        return loads == 0 ? 0.0 : (double) totalLoadTimeNanos / loads;
+    }
+
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    //how full the cache is, between 0.0 and 1.0
+    public double occupancy() {
+        return capacity == 0 ? 0.0 : (double) size / capacity;
+    }
+
+    //counters of this snapshot minus the counters of an older one, size and capacity are taken from this snapshot
+    public CacheStats minus(CacheStats older) {
+        return new CacheStats(
+                Math.max(0, hitCount - older.hitCount),
+                Math.max(0, missCount - older.missCount),
+                Math.max(0, loadSuccessCount - older.loadSuccessCount),
+                Math.max(0, loadFailureCount - older.loadFailureCount),
+                Math.max(0, totalLoadTimeNanos - older.totalLoadTimeNanos),
+                Math.max(0, evictionCount - older.evictionCount),
+                size, capacity);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", hitRate=" + String.format("%.4f", hitRate()) +
+                ", loadSuccessCount=" + loadSuccessCount +
+                ", loadFailureCount=" + loadFailureCount +
+                ", averageLoadPenaltyNanos=" + String.format("%.1f", averageLoadPenaltyNanos()) +
+                ", evictionCount=" + evictionCount +
+                ", size=" + size +
+                ", capacity=" + capacity +
+                '}';
+    }
+}
@@ -0,0 +1,23 @@
+package Collection.Map.LinkedHashMap;
+
+//Management interface of the cache statistics, so they can be watched in JConsole or VisualVM
+//The name has to end with MXBean, that is how JMX recognises it
+public interface CacheStatsMXBean {
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getLoadCount();
+
+    double getAverageLoadPenaltyNanos();
+
+    long getEvictionCount();
+
+    int getSize();
+
+    int getCapacity();
+
+    double getOccupancy();
+}
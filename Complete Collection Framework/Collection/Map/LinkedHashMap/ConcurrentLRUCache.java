@@ -0,0 +1,151 @@
+package Collection.Map.LinkedHashMap;
+
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+//LRUCache is an access ordered LinkedHashMap, so even a get() moves the entry to the end of the linked list
+//That means every read is a write and the only way to share it between threads is one global lock around it
+//ConcurrentLRUCache splits the cache into segments (lock striping, same idea as the old segment based ConcurrentHashMap)
+//Each segment is a small LRUCache with its own lock, so threads touching different segments never wait for each other
+public class ConcurrentLRUCache<K, V> {
+    private final LRUCache<K, V>[] segments;
+    private final int segmentMask;
+    //32 - log2(number of segments), the segment index is taken from the top bits of the mixed hash
+    private final int segmentShift;
+    private final int capacity;
+
+    ConcurrentLRUCache(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ConcurrentLRUCache(int capacity, int concurrencyLevel) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        //number of segments is a power of two so that we can pick a segment with a bit mask instead of %
+        //and never more than the capacity, otherwise some segments would not be able to hold even one entry
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(concurrencyLevel, capacity)));
+        this.capacity = capacity;
+        this.segmentMask = segmentCount - 1;
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        this.segments = new LRUCache[segmentCount];
+        //the capacity is shared between the segments, the remainder goes to the first few segments
+        //so the sum of all segment capacities is exactly the capacity of the cache
+        int perSegment = capacity / segmentCount;
+        int remainder = capacity % segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new LRUCache<>(perSegment + (i < remainder ? 1 : 0));
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ConcurrentLRUCache<Integer, String> cache = new ConcurrentLRUCache<>(1000);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 5000; i++) {
+                cache.put(i, "value" + i);
+            }
+        });
+        Thread reader = new Thread(() -> {
+            for (int i = 0; i < 5000; i++) {
+                cache.get(i);
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+        //size never goes above the capacity, each segment evicts its own least recently used entry
+        System.out.println(cache.size());//1000
+        System.out.println(cache.get(4999));//value4999
+        System.out.println(cache.get(0));//null, evicted long ago
+    }
+
+    private LRUCache<K, V> segmentFor(Object key) {
+        //the LinkedHashMap of the segment picks its bucket from the low bits of the same hashcode,
+        //so taking the segment from the low bits too would leave most buckets of every segment empty
+        //multiplying by the golden ratio (Fibonacci hashing) mixes all bits of the hashcode into the top bits,
+        //which the segment index is taken from, and the low bits stay free for the buckets
+        //(the mask only matters for a single segment, where the shift is 32 and Java shifts by 0 instead)
+        int h = key.hashCode() * 0x9E3779B9;
+        return segments[(h >>> segmentShift) & segmentMask];
+    }
+
+    public V get(K key) {
+        LRUCache<K, V> segment = segmentFor(key);
+        //get() changes the access order of the segment, so it needs the lock as well
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    public V put(K key, V value) {
+        LRUCache<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    public V putIfAbsent(K key, V value) {
+        LRUCache<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.putIfAbsent(key, value);
+        }
+    }
+
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        LRUCache<K, V> segment = segmentFor(key);
+        //the mapping function runs under the segment lock, so other keys of the same segment wait for it
+        synchronized (segment) {
+            return segment.computeIfAbsent(key, mappingFunction);
+        }
+    }
+
+    public V remove(K key) {
+        LRUCache<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    public boolean containsKey(K key) {
+        LRUCache<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.containsKey(key);
+        }
+    }
+
+    public int size() {
+        //not a snapshot, other threads can change the segments while we are counting
+        int size = 0;
+        for (LRUCache<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (LRUCache<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (LRUCache<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.forEach((key, value) -> joiner.add(key + "=" + value));
+            }
+        }
+        return joiner.toString();
+    }
+}
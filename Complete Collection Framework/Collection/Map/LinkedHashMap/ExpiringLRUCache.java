@@ -0,0 +1,218 @@
+package Collection.Map.LinkedHashMap;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+//LRUCache only evicts when the cache is full, an entry that is never evicted can stay there forever (stale data)
+//ExpiringLRUCache wraps an LRUCache and gives every entry an expiry time:
+//1. time to live (TTL)  : entry expires a fixed time after it was written (default for all entries or per entry)
+//2. time to idle (TTI)  : entry expires if nobody has read or written it for some time
+//Expired entries are removed lazily:
+//- on access, an expired entry is removed and treated as a miss
+//- on every write, a few of the least recently used entries are checked and removed if expired (amortized cleanup)
+//So we do not need a separate sweeper thread with a DelayQueue (see DelayQueueDemo) to clean the cache
+//
+//Refresh ahead : if a loader is configured, an entry that is older than refreshAfter is reloaded in the background
+//while callers keep getting the current value, so a hot key is fresh before it expires and nobody waits for the reload
+public class ExpiringLRUCache<K, V> {
+    //how many of the eldest entries are checked for expiry on each write
+    private static final int EXPIRED_CHECKS_PER_WRITE = 4;
+
+    private final LRUCache<K, Expirable<V>> entries;
+    private final long timeToLiveNanos;
+    private final long timeToIdleNanos;
+
+    private long refreshAfterNanos;
+    private Function<? super K, ? extends V> loader;
+    private Executor refreshExecutor;
+    private final Set<K> refreshing = new HashSet<>();
+
+    //0 means no limit for timeToLive or timeToIdle
+    ExpiringLRUCache(int capacity, long timeToLive, long timeToIdle, TimeUnit unit) {
+        if (timeToLive < 0 || timeToIdle < 0) {
+            throw new IllegalArgumentException("expiry times cannot be negative");
+        }
+        this.entries = new LRUCache<>(capacity);
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+        this.timeToIdleNanos = unit.toNanos(timeToIdle);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        //entries live for 2 seconds, and are refreshed in the background once they are older than 1 second
+        ExpiringLRUCache<String, String> priceCache = new ExpiringLRUCache<>(100, 2, 0, TimeUnit.SECONDS);
+        priceCache.enableRefreshAhead(1, TimeUnit.SECONDS, key -> key + "@" + System.currentTimeMillis(), executor);
+
+        priceCache.put("Gold", "Gold@loaded-once");
+        //this entry has its own, shorter time to live
+        priceCache.put("Silver", "Silver@loaded-once", 500, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(1200);
+        System.out.println(priceCache.getIfPresent("Silver"));//null, Silver expired after 500ms
+        //Gold is older than 1 second, the current value is returned and a reload starts in the background
+        System.out.println(priceCache.get("Gold"));//Gold@loaded-once
+        Thread.sleep(200);
+        System.out.println(priceCache.get("Gold"));//Gold@<reload time>, refreshed before it expired
+        executor.shutdown();
+    }
+
+    //reload entries older than refreshAfter on the given executor, also used to load missing keys in get()
+    public synchronized void enableRefreshAhead(long refreshAfter, TimeUnit unit,
+                                                Function<? super K, ? extends V> loader, Executor executor) {
+        if (refreshAfter <= 0) {
+            throw new IllegalArgumentException("refreshAfter must be positive: " + refreshAfter);
+        }
+        this.refreshAfterNanos = unit.toNanos(refreshAfter);
+        this.loader = loader;
+        this.refreshExecutor = executor;
+    }
+
+    public synchronized V put(K key, V value) {
+        return put(key, value, timeToLiveNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized V put(K key, V value, long timeToLive, TimeUnit unit) {
+        long now = System.nanoTime();
+        long ttl = unit.toNanos(timeToLive);
+        Expirable<V> old = entries.put(key, new Expirable<>(value, now, ttl == 0 ? Long.MAX_VALUE : now + ttl));
+        expireEldest(now);
+        return old == null || old.isExpired(now, timeToIdleNanos) ? null : old.value;
+    }
+
+    //returns the value only if it is cached and not expired, never calls the loader
+    public synchronized V getIfPresent(K key) {
+        Expirable<V> entry = getEntry(key, System.nanoTime());
+        return entry == null ? null : entry.value;
+    }
+
+    //like getIfPresent, but with refresh ahead enabled a missing key is loaded and an old entry is reloaded in the background
+    public V get(K key) {
+        Function<? super K, ? extends V> loader;
+        synchronized (this) {
+            long now = System.nanoTime();
+            Expirable<V> entry = getEntry(key, now);
+            if (entry != null || this.loader == null) {
+                if (entry != null && this.loader != null && now - entry.writeTime >= refreshAfterNanos) {
+                    scheduleRefresh(key, entry);
+                }
+                return entry == null ? null : entry.value;
+            }
+            loader = this.loader;
+        }
+        //a miss is loaded outside of the lock so that other keys are not blocked by a slow loader
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            put(key, loaded);
+        }
+        return loaded;
+    }
+
+    public synchronized V remove(K key) {
+        Expirable<V> entry = entries.remove(key);
+        return entry == null || entry.isExpired(System.nanoTime(), timeToIdleNanos) ? null : entry.value;
+    }
+
+    //number of entries including the expired ones that were not cleaned up yet
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    //removes all expired entries, the normal cleanup is lazy and only looks at a few entries at a time
+    public synchronized void cleanUp() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now, timeToIdleNanos));
+    }
+
+    private Expirable<V> getEntry(K key, long now) {
+        Expirable<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(now, timeToIdleNanos)) {
+            entries.remove(key);
+            return null;
+        }
+        entry.accessTime = now;
+        return entry;
+    }
+
+    private void scheduleRefresh(K key, Expirable<V> current) {
+        //only one refresh per key at a time, other callers keep using the current value
+        if (!refreshing.add(key)) {
+            return;
+        }
+        Function<? super K, ? extends V> loader = this.loader;
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    V value = loader.apply(key);
+                    if (value != null) {
+                        replaceIfUnchanged(key, current, value);
+                    }
+                } finally {
+                    synchronized (this) {
+                        refreshing.remove(key);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            //executor is shut down or full, the entry simply expires and is loaded again on the next miss
+            refreshing.remove(key);
+        }
+    }
+
+    //the loader runs without the lock, meanwhile the key may have been removed, expired or written again by put()
+    //so the reloaded value only replaces the entry it was loaded for, and keeps that entry's own time to live
+    //Expirable does not override equals, so replace(key, expected, ...) only matches that very same entry
+    private synchronized void replaceIfUnchanged(K key, Expirable<V> expected, V value) {
+        long now = System.nanoTime();
+        long expireAt = expected.expireAt == Long.MAX_VALUE ? Long.MAX_VALUE : now + (expected.expireAt - expected.writeTime);
+        entries.replace(key, expected, new Expirable<>(value, now, expireAt));
+    }
+
+    private void expireEldest(long now) {
+        //iterating over an access ordered LinkedHashMap does not change the order, only get and put do
+        Iterator<Expirable<V>> iterator = entries.values().iterator();
+        for (int i = 0; i < EXPIRED_CHECKS_PER_WRITE && iterator.hasNext(); i++) {
+            if (iterator.next().isExpired(now, timeToIdleNanos)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return entries.toString();
+    }
+
+    private static class Expirable<V> {
+        final V value;
+        final long writeTime;
+        final long expireAt;
+        long accessTime;
+
+        Expirable(V value, long writeTime, long expireAt) {
+            this.value = value;
+            this.writeTime = writeTime;
+            this.expireAt = expireAt;
+            this.accessTime = writeTime;
+        }
+
+        boolean isExpired(long now, long timeToIdleNanos) {
+            return expireAt != Long.MAX_VALUE && now - expireAt >= 0
+                    || timeToIdleNanos > 0 && now - accessTime >= timeToIdleNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(value);
+        }
+    }
+}
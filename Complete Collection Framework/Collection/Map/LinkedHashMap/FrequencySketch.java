@@ -0,0 +1,82 @@
+package Collection.Map.LinkedHashMap;
+
+//Count-Min sketch that estimates how many times a key has been seen, using a fixed amount of memory
+//It is used by TinyLfuCache to decide if a new key is worth keeping over the key that would be evicted
+//Each counter is only 4 bits (max 15), sixteen counters are packed into one long
+//Every key is counted in 4 counters picked by 4 different hash functions, the estimate is the minimum of the 4
+//(other keys can only make a counter bigger, so the smallest one is the closest to the truth)
+class FrequencySketch<K> {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int words = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.table = new long[Math.max(8, words)];
+        this.counterMask = (table.length << 4) - 1;
+        //after sampleSize increments all counters are halved (aging)
+        //so keys that were popular a long time ago slowly lose their advantage
+        this.sampleSize = Math.max(10, 10 * capacity);
+    }
+
+    public void increment(K key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            added |= incrementAt(indexOf(hash, i));
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    public int frequency(K key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < SEEDS.length; i++) {
+            frequency = Math.min(frequency, counterAt(indexOf(hash, i)));
+        }
+        return frequency;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & counterMask;
+    }
+
+    private int counterAt(int index) {
+        int offset = (index & 15) << 2;
+        return (int) ((table[index >>> 4] >>> offset) & 0xfL);
+    }
+
+    private boolean incrementAt(int index) {
+        int word = index >>> 4;
+        int offset = (index & 15) << 2;
+        long mask = 0xfL << offset;
+        //the counter is saturated at 15, 4 bits are enough to tell hot keys from cold ones
+        if ((table[word] & mask) != mask) {
+            table[word] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            //shift every 4 bit counter right by one, the mask drops the bit that moved in from the next counter
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = additions >>> 1;
+    }
+
+    private static int spread(int h) {
+        h *= 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
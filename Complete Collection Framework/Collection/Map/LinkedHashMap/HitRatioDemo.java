@@ -0,0 +1,83 @@
+package Collection.Map.LinkedHashMap;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+//Replays the same access trace against LRUCache and TinyLfuCache and prints the hit ratio of both
+//A miss is followed by a put, just like a cache in front of a database would do
+public class HitRatioDemo {
+    private static final int CAPACITY = 1_000;
+    private static final int KEY_SPACE = 100_000;
+    private static final int ACCESSES = 1_000_000;
+
+    public static void main(String[] args) {
+        int[] zipf = zipfTrace(new Random(42), 1.0);
+        int[] scan = scanTrace(new Random(42));
+
+        //Zipf : a few keys are very popular and most keys are rarely used (typical web traffic)
+        System.out.printf("zipf  LRUCache=%.2f%%  TinyLfuCache=%.2f%%%n", lruHitRatio(zipf) * 100, tinyLfuHitRatio(zipf) * 100);
+        //Scan : the same Zipf traffic, but every now and then someone reads a long range of cold keys once
+        System.out.printf("scan  LRUCache=%.2f%%  TinyLfuCache=%.2f%%%n", lruHitRatio(scan) * 100, tinyLfuHitRatio(scan) * 100);
+    }
+
+    private static double lruHitRatio(int[] trace) {
+        LRUCache<Integer, Integer> cache = new LRUCache<>(CAPACITY);
+        return hitRatio(trace, key -> {
+            if (cache.get(key) != null) {
+                return true;
+            }
+            cache.put(key, key);
+            return false;
+        });
+    }
+
+    private static double tinyLfuHitRatio(int[] trace) {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(CAPACITY);
+        return hitRatio(trace, key -> {
+            if (cache.get(key) != null) {
+                return true;
+            }
+            cache.put(key, key);
+            return false;
+        });
+    }
+
+    private static double hitRatio(int[] trace, IntPredicate access) {
+        int hits = 0;
+        for (int key : trace) {
+            if (access.test(key)) {
+                hits++;
+            }
+        }
+        return (double) hits / trace.length;
+    }
+
+    private static int[] zipfTrace(Random random, double exponent) {
+        //cumulative probabilities of key i being picked, probability of key i is proportional to 1 / (i+1)^exponent
+        double[] cumulative = new double[KEY_SPACE];
+        double sum = 0;
+        for (int i = 0; i < KEY_SPACE; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        int[] trace = new int[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace[i] = index >= 0 ? index : -index - 1;
+        }
+        return trace;
+    }
+
+    private static int[] scanTrace(Random random) {
+        int[] trace = zipfTrace(random, 1.0);
+        int scanKey = KEY_SPACE;
+        //every 20_000 accesses we insert a scan of 5_000 keys that are never used again
+        for (int start = 0; start + 5_000 < ACCESSES; start += 20_000) {
+            for (int i = start; i < start + 5_000; i++) {
+                trace[i] = scanKey++;
+            }
+        }
+        return trace;
+    }
+}
@@ -1,16 +1,22 @@
 package Collection.Map.LinkedHashMap;
 
+import java.lang.management.ManagementFactory;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 public class LRUCache<K,V> extends LinkedHashMap<K,V> {
     private int capacity;
+    //null until recordStats() is called, so a cache without stats only pays for one null check per get
+    private StatsCounter stats;
     LRUCache(int capacity){
         super(capacity,0.75f,true);
         this.capacity=capacity;
     }
     public static void main(String[] args) {
-        LRUCache<String,Integer> studentCache = new LRUCache<>(3);
+        LRUCache<String,Integer> studentCache = new LRUCache<String,Integer>(3).recordStats();
         studentCache.put("Alice",1);
         studentCache.put("Bob",2);
         studentCache.put("Charlie",3);
@@ -20,12 +26,136 @@ public class LRUCache<K,V> extends LinkedHashMap<K,V> {
         //Since the capacity is 3, the eldest entry should be removed which is Alice
         System.out.println(studentCache);
 
+        studentCache.get("Bob");//hit
+        studentCache.get("Alice");//miss, Alice was evicted
+        studentCache.computeIfAbsent("Eve", name -> 5);//miss + load, evicts Charlie
+        System.out.println(studentCache.stats());//2 misses, 1 hit, 1 load, 2 evictions
+
     }
 
     //This method is called after the put method to check if the eldest entry needs to be removed based on some condition
     @Override
     protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
         //if the size of the map is greater than the capacity then remove the eldest entry
-        return size()>capacity;
+        boolean evict = size()>capacity;
+        if(evict && stats!=null){
+            stats.recordEviction();
+        }
+        return evict;
+    }
+
+    //Turns on hit/miss/load/eviction statistics for this cache, returns this so it can be chained after the constructor
+    public LRUCache<K,V> recordStats(){
+        if(stats==null){
+            stats=new StatsCounter();
+        }
+        return this;
+    }
+
+    //Snapshot of the statistics, all counters are 0 if recordStats() was never called
+    public CacheStats stats(){
+        StatsCounter counter = stats!=null ? stats : new StatsCounter();
+        return counter.snapshot(size(),capacity);
+    }
+
+    //Registers the statistics of this cache as an MXBean named Collection.Map.LinkedHashMap:type=LRUCache,name=<name>
+    public ObjectName registerMBean(String name) throws JMException {
+        recordStats();
+        ObjectName objectName = new ObjectName("Collection.Map.LinkedHashMap:type=LRUCache,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new StatsMXBean(), objectName);
+        return objectName;
+    }
+
+    @Override
+    public V get(Object key) {
+        V value = super.get(key);
+        StatsCounter stats = this.stats;
+        if(stats!=null){
+            //a key mapped to null is counted as a miss, a cache should not store null values anyway
+            if(value!=null){
+                stats.recordHits(1);
+            }else{
+                stats.recordMisses(1);
+            }
+        }
+        return value;
+    }
+
+    //computeIfAbsent is how a missing value is loaded into the cache, so that is where the load time is measured
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        StatsCounter stats = this.stats;
+        if(stats==null){
+            return super.computeIfAbsent(key, mappingFunction);
+        }
+        boolean[] loaded = new boolean[1];
+        V value = super.computeIfAbsent(key, k -> {
+            loaded[0] = true;
+            stats.recordMisses(1);
+            long start = System.nanoTime();
+            try {
+                V result = mappingFunction.apply(k);
+                if(result!=null){
+                    stats.recordLoadSuccess(System.nanoTime()-start);
+                }else{
+                    stats.recordLoadFailure(System.nanoTime()-start);
+                }
+                return result;
+            } catch (RuntimeException | Error e) {
+                stats.recordLoadFailure(System.nanoTime()-start);
+                throw e;
+            }
+        });
+        if(!loaded[0]){
+            stats.recordHits(1);
+        }
+        return value;
+    }
+
+    private class StatsMXBean implements CacheStatsMXBean {
+        @Override
+        public long getHitCount() {
+            return stats().hitCount();
+        }
+
+        @Override
+        public long getMissCount() {
+            return stats().missCount();
+        }
+
+        @Override
+        public double getHitRate() {
+            return stats().hitRate();
+        }
+
+        @Override
+        public long getLoadCount() {
+            return stats().loadCount();
+        }
+
+        @Override
+        public double getAverageLoadPenaltyNanos() {
+            return stats().averageLoadPenaltyNanos();
+        }
+
+        @Override
+        public long getEvictionCount() {
+            return stats().evictionCount();
+        }
+
+        @Override
+        public int getSize() {
+            return size();
+        }
+
+        @Override
+        public int getCapacity() {
+            return capacity;
+        }
+
+        @Override
+        public double getOccupancy() {
+            return stats().occupancy();
+        }
     }
 }
@@ -0,0 +1,70 @@
+package Collection.Map.LinkedHashMap;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+//Compares concurrent get() throughput of LRUCache behind one global lock against ConcurrentLRUCache
+//It is a plain main() benchmark, so the numbers are only good for comparing the two caches with each other
+//Run it with a few warmup rounds and on a machine with many cores to see the difference
+public class LRUCacheBenchmark {
+    private static final int CAPACITY = 100_000;
+    private static final int KEY_SPACE = 200_000;
+    private static final long DURATION_MILLIS = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = Math.max(16, Runtime.getRuntime().availableProcessors());
+
+        //the only way to share LRUCache is to lock every call, even get() because it changes the access order
+        Map<Integer, Integer> synchronizedCache = Collections.synchronizedMap(new LRUCache<>(CAPACITY));
+        ConcurrentLRUCache<Integer, Integer> concurrentCache = new ConcurrentLRUCache<>(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            synchronizedCache.put(i, i);
+            concurrentCache.put(i, i);
+        }
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            //warmup so that the JIT has compiled both paths before we measure
+            run(threads, key -> synchronizedCache.get(key));
+            run(threads, concurrentCache::get);
+
+            long synchronizedOps = run(threads, key -> synchronizedCache.get(key));
+            long concurrentOps = run(threads, concurrentCache::get);
+            System.out.printf("threads=%-3d synchronized LRUCache=%,12d ops/s   ConcurrentLRUCache=%,12d ops/s%n",
+                    threads, synchronizedOps * 1000 / DURATION_MILLIS, concurrentOps * 1000 / DURATION_MILLIS);
+        }
+    }
+
+    private static long run(int threads, IntFunction<Integer> get) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                long count = 0;
+                //check the clock only every 1024 operations so that we measure the cache and not System.currentTimeMillis()
+                while ((count & 1023) != 0 || System.currentTimeMillis() < deadline) {
+                    get.apply(random.nextInt(KEY_SPACE));
+                    count++;
+                }
+                operations.add(count);
+                done.countDown();
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+        start.countDown();
+        done.await();
+        return operations.sum();
+    }
+}
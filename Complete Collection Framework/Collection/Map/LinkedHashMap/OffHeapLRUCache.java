@@ -0,0 +1,152 @@
+package Collection.Map.LinkedHashMap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//LRUCache keeps every value as an object in the Java heap, with millions of entries the garbage collector
+//has to trace all of them again and again, which means long GC pauses
+//OffHeapLRUCache keeps only the keys and a small Slot (address + length) per entry in the heap
+//The values are serialized into direct ByteBuffers allocated by the SlabAllocator, outside of the heap
+//get() deserializes a new copy of the value every time, so changing the returned object does not change the cache
+//The cache is bounded by the number of entries and by the number of off heap bytes, LRU order just like LRUCache
+public class OffHeapLRUCache<K, V> {
+    private static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    private final LinkedHashMap<K, Slot> slots = new LinkedHashMap<>(16, 0.75f, true);
+    private final SlabAllocator allocator;
+    private final ValueSerializer<V> serializer;
+    private final int capacity;
+    private final long maximumBytes;
+    private long usedBytes;
+
+    OffHeapLRUCache(int capacity, long maximumBytes, ValueSerializer<V> serializer) {
+        this(capacity, maximumBytes, serializer, DEFAULT_SLAB_SIZE);
+    }
+
+    OffHeapLRUCache(int capacity, long maximumBytes, ValueSerializer<V> serializer, int slabSize) {
+        if (capacity <= 0 || maximumBytes <= 0) {
+            throw new IllegalArgumentException("capacity and maximumBytes must be positive");
+        }
+        this.capacity = capacity;
+        this.maximumBytes = maximumBytes;
+        this.serializer = serializer;
+        this.allocator = new SlabAllocator(slabSize);
+    }
+
+    public static void main(String[] args) {
+        OffHeapLRUCache<Integer, String> cache = new OffHeapLRUCache<>(100_000, 64L << 20, ValueSerializer.utf8());
+        for (int i = 0; i < 200_000; i++) {
+            cache.put(i, "student-" + i);
+        }
+        //only the last 100_000 entries are kept, the values are in a few 1 MB slabs instead of 100_000 String objects
+        System.out.println(cache.size());//100000
+        System.out.println(cache.get(199_999));//student-199999
+        System.out.println(cache.get(0));//null, evicted
+        System.out.println(cache.slabCount() + " slabs, " + cache.offHeapBytes() + " bytes off heap");
+    }
+
+    public V get(K key) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            return null;
+        }
+        return serializer.deserialize(allocator.read(slot.address, slot.length));
+    }
+
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        byte[] bytes = serializer.serialize(value);
+        if (bytes.length > maximumBytes) {
+            throw new IllegalArgumentException("value of " + bytes.length + " bytes is bigger than the whole cache");
+        }
+        V old = remove(key);
+        slots.put(key, new Slot(allocator.allocate(bytes), bytes.length));
+        usedBytes += bytes.length;
+        evictIfNeeded();
+        if (allocator.needsCompaction()) {
+            compact();
+        }
+        return old;
+    }
+
+    public V remove(K key) {
+        Slot slot = slots.remove(key);
+        if (slot == null) {
+            return null;
+        }
+        V old = serializer.deserialize(allocator.read(slot.address, slot.length));
+        free(slot);
+        return old;
+    }
+
+    public boolean containsKey(K key) {
+        return slots.containsKey(key);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public void clear() {
+        slots.clear();
+        allocator.clear();
+        usedBytes = 0;
+    }
+
+    //bytes taken by the slabs, including dead space that was not compacted yet
+    public long offHeapBytes() {
+        return allocator.allocatedBytes();
+    }
+
+    //bytes taken by the values that are still in the cache
+    public long usedBytes() {
+        return usedBytes;
+    }
+
+    public int slabCount() {
+        return allocator.slabCount();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Slot> iterator = slots.values().iterator();
+        while ((slots.size() > capacity || usedBytes > maximumBytes) && iterator.hasNext()) {
+            Slot eldest = iterator.next();
+            iterator.remove();
+            free(eldest);
+        }
+    }
+
+    //moves the live values out of slabs that are at least half dead, those slabs are then released
+    //it is one pass over all entries, but it only runs after a quarter of the allocated memory died in sparse slabs,
+    //so the cost is spread over all the writes that created that dead space
+    private void compact() {
+        for (Map.Entry<K, Slot> entry : slots.entrySet()) {
+            Slot slot = entry.getValue();
+            if (allocator.isSparse(slot.address)) {
+                byte[] bytes = new byte[slot.length];
+                allocator.read(slot.address, slot.length).get(bytes);
+                long oldAddress = slot.address;
+                slot.address = allocator.allocate(bytes);
+                allocator.free(oldAddress, slot.length);
+            }
+        }
+    }
+
+    private void free(Slot slot) {
+        allocator.free(slot.address, slot.length);
+        usedBytes -= slot.length;
+    }
+
+    private static class Slot {
+        long address;
+        final int length;
+
+        Slot(long address, int length) {
+            this.address = address;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package Collection.Map.LinkedHashMap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+//Hands out space for serialized values inside big direct ByteBuffers (slabs) that live outside of the Java heap
+//The garbage collector only sees one small ByteBuffer object per slab, not one object per value
+//Values are appended to the current slab (log structured), freeing a value only counts its bytes as dead
+//A slab whose bytes are all dead is released, and compaction moves the live values out of half empty slabs
+//The dead bytes of those half empty (sparse) slabs are counted separately, they are exactly what compaction can reclaim
+//An address is the slab index in the upper 32 bits and the offset inside the slab in the lower 32 bits
+class SlabAllocator {
+    private final int slabSize;
+    private final List<Slab> slabs = new ArrayList<>();
+    private final ArrayDeque<Integer> releasedIndexes = new ArrayDeque<>();
+    private int currentIndex = -1;
+    private long allocatedBytes;
+    //dead bytes of the sparse slabs only, the current slab and slabs that are less than half dead are not counted
+    private long sparseDeadBytes;
+
+    SlabAllocator(int slabSize) {
+        if (slabSize <= 0) {
+            throw new IllegalArgumentException("slabSize must be positive: " + slabSize);
+        }
+        this.slabSize = slabSize;
+    }
+
+    //copies the bytes into a slab and returns their address
+    long allocate(byte[] bytes) {
+        int length = bytes.length;
+        Slab slab = currentIndex < 0 ? null : slabs.get(currentIndex);
+        int index;
+        if (length > slabSize) {
+            //a value bigger than a slab gets a slab of its own, the current slab stays as it is
+            index = addSlab(length);
+            slab = slabs.get(index);
+        } else {
+            if (slab == null || slabSize - slab.used < length) {
+                int previousIndex = currentIndex;
+                if (slab != null && slab.dead == slab.used) {
+                    //everything in the old slab was freed while we were still writing to it
+                    release(currentIndex);
+                }
+                currentIndex = addSlab(slabSize);
+                if (slab != null && slab.dead != slab.used) {
+                    //the old slab is no longer written to, so it can be compacted from now on
+                    updateSparse(previousIndex, slab);
+                }
+                slab = slabs.get(currentIndex);
+            }
+            index = currentIndex;
+        }
+        int offset = slab.used;
+        slab.buffer.put(offset, bytes);
+        slab.used += length;
+        return ((long) index << 32) | offset;
+    }
+
+    //a read only view of the bytes, no copy is made
+    ByteBuffer read(long address, int length) {
+        Slab slab = slabs.get(slabIndex(address));
+        return slab.buffer.slice(offset(address), length).asReadOnlyBuffer();
+    }
+
+    void free(long address, int length) {
+        int index = slabIndex(address);
+        Slab slab = slabs.get(index);
+        if (slab.sparse) {
+            sparseDeadBytes -= slab.dead;
+            slab.sparse = false;
+        }
+        slab.dead += length;
+        if (slab.dead == slab.used && index != currentIndex) {
+            release(index);
+        } else {
+            updateSparse(index, slab);
+        }
+    }
+
+    //true when a slab is at least half dead and is not the slab we are currently writing to
+    boolean isSparse(long address) {
+        return slabs.get(slabIndex(address)).sparse;
+    }
+
+    //compaction walks all entries, so it only runs when the sparse slabs hold more than one slab and more than a quarter
+    //of the allocated memory in dead bytes. Compaction releases all sparse slabs, which sets sparseDeadBytes back to 0,
+    //so the next one needs as many new dead bytes in sparse slabs first, and dead bytes in the current slab or in
+    //slabs that are still mostly live (which compaction would not touch) never trigger it
+    boolean needsCompaction() {
+        return sparseDeadBytes > slabSize && sparseDeadBytes * 4 > allocatedBytes;
+    }
+
+    void clear() {
+        slabs.clear();
+        releasedIndexes.clear();
+        currentIndex = -1;
+        allocatedBytes = 0;
+        sparseDeadBytes = 0;
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    long liveBytes() {
+        long live = 0;
+        for (Slab slab : slabs) {
+            if (slab != null) {
+                live += slab.used - slab.dead;
+            }
+        }
+        return live;
+    }
+
+    int slabCount() {
+        return slabs.size() - releasedIndexes.size();
+    }
+
+    private int addSlab(int size) {
+        Slab slab = new Slab(ByteBuffer.allocateDirect(size));
+        allocatedBytes += size;
+        Integer index = releasedIndexes.poll();
+        if (index != null) {
+            slabs.set(index, slab);
+            return index;
+        }
+        slabs.add(slab);
+        return slabs.size() - 1;
+    }
+
+    private void release(int index) {
+        Slab slab = slabs.get(index);
+        allocatedBytes -= slab.buffer.capacity();
+        //the off heap memory is given back when the ByteBuffer object is garbage collected
+        slabs.set(index, null);
+        releasedIndexes.push(index);
+    }
+
+    //the slab (not being released) starts counting as sparse once it is at least half dead and no longer written to
+    private void updateSparse(int index, Slab slab) {
+        if (!slab.sparse && index != currentIndex && slab.dead * 2 >= slab.used) {
+            slab.sparse = true;
+            sparseDeadBytes += slab.dead;
+        }
+    }
+
+    private static int slabIndex(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private static class Slab {
+        final ByteBuffer buffer;
+        int used;
+        int dead;
+        //its dead bytes are part of sparseDeadBytes
+        boolean sparse;
+
+        Slab(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
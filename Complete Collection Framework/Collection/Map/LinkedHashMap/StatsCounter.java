@@ -0,0 +1,44 @@
+package Collection.Map.LinkedHashMap;
+
+import java.util.concurrent.atomic.LongAdder;
+
+//Records the statistics of a cache while it is running
+//LongAdder instead of AtomicLong : every thread adds to its own cell and the cells are only summed in snapshot()
+//so many threads hitting the cache at the same time do not fight over one counter
+//A cache only creates a StatsCounter when recordStats() is called, without it the get path does not touch any counter
+public class StatsCounter {
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public void recordHits(int count) {
+        hitCount.add(count);
+    }
+
+    public void recordMisses(int count) {
+        missCount.add(count);
+    }
+
+    public void recordLoadSuccess(long loadTimeNanos) {
+        loadSuccessCount.increment();
+        totalLoadTime.add(loadTimeNanos);
+    }
+
+    public void recordLoadFailure(long loadTimeNanos) {
+        loadFailureCount.increment();
+        totalLoadTime.add(loadTimeNanos);
+    }
+
+    public void recordEviction() {
+        evictionCount.increment();
+    }
+
+    //the counters are read one by one, so a snapshot taken while other threads record is close but not exact
+    public CacheStats snapshot(int size, int capacity) {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+                totalLoadTime.sum(), evictionCount.sum(), size, capacity);
+    }
+}
@@ -0,0 +1,179 @@
+package Collection.Map.LinkedHashMap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+//LRUCache only looks at recency, the least recently used entry is always the one that goes
+//So one pass over many cold keys (a scan) pushes every hot key out of the cache
+//TinyLfuCache (W-TinyLFU) also looks at how often a key is used before letting it in
+//It is built from three access ordered LinkedHashMaps:
+//1. window     : small LRU (1% of capacity), every new key starts here so new keys get a chance to become popular
+//2. probation  : keys that made it out of the window but were not used again yet
+//3. protected  : keys that were used again while in probation (80% of the main area)
+//When a key falls out of the window it has to beat the eldest probation key in the FrequencySketch to be admitted
+public class TinyLfuCache<K, V> {
+    private final int capacity;
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+
+    private final LinkedHashMap<K, V> window;
+    private final LinkedHashMap<K, V> probation;
+    private final LinkedHashMap<K, V> protectedArea;
+    private final FrequencySketch<K> sketch;
+    //key of the last get() that missed, it was already counted in the sketch
+    private K lastMiss;
+
+    TinyLfuCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = mainCapacity * 80 / 100;
+        this.window = new LinkedHashMap<>(16, 0.75f, true);
+        this.probation = new LinkedHashMap<>(16, 0.75f, true);
+        this.protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+        this.sketch = new FrequencySketch<>(capacity);
+    }
+
+    public static void main(String[] args) {
+        TinyLfuCache<String, Integer> studentCache = new TinyLfuCache<>(3);
+        studentCache.put("Alice", 1);
+        studentCache.put("Bob", 2);
+        studentCache.put("Charlie", 3);
+        //Alice is used a lot, so her frequency is high
+        for (int i = 0; i < 5; i++) {
+            studentCache.get("Alice");
+        }
+        //David and Eve push Charlie and David out of the window, but they were used only once
+        //so they do not beat the eldest key of the main area (Bob) and are not admitted
+        //with LRUCache a couple of one time keys like these would have evicted Alice
+        studentCache.put("David", 4);
+        studentCache.put("Eve", 5);
+        System.out.println(studentCache);
+        System.out.println(studentCache.get("Alice"));//1
+    }
+
+    public V get(K key) {
+        sketch.increment(key);
+        lastMiss = null;
+        V value = window.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = protectedArea.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = probation.remove(key);
+        if (value != null) {
+            //used again while on probation, so it is moved to the protected area
+            promote(key, value);
+        } else {
+            lastMiss = key;
+        }
+        return value;
+    }
+
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        //the usual "get(), miss, load, put()" is one use of the key, not two : a key the last get() missed
+        //was counted there already, otherwise a new key would start with frequency 2 and beat keys used twice
+        if (!key.equals(lastMiss)) {
+            sketch.increment(key);
+        }
+        lastMiss = null;
+        if (window.containsKey(key)) {
+            return window.put(key, value);
+        }
+        if (protectedArea.containsKey(key)) {
+            return protectedArea.put(key, value);
+        }
+        V old = probation.remove(key);
+        if (old != null) {
+            promote(key, value);
+            return old;
+        }
+        window.put(key, value);
+        if (window.size() > windowCapacity) {
+            Map.Entry<K, V> candidate = removeEldest(window);
+            admit(candidate.getKey(), candidate.getValue());
+        }
+        return null;
+    }
+
+    public V remove(K key) {
+        V value = window.remove(key);
+        if (value == null) {
+            value = probation.remove(key);
+        }
+        if (value == null) {
+            value = protectedArea.remove(key);
+        }
+        return value;
+    }
+
+    public boolean containsKey(K key) {
+        return window.containsKey(key) || probation.containsKey(key) || protectedArea.containsKey(key);
+    }
+
+    public int size() {
+        return window.size() + probation.size() + protectedArea.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private void admit(K candidateKey, V candidateValue) {
+        if (probation.size() + protectedArea.size() < mainCapacity) {
+            probation.put(candidateKey, candidateValue);
+            return;
+        }
+        //main area is full, the candidate has to be used more often than the key we would evict for it
+        LinkedHashMap<K, V> victimArea = probation.isEmpty() ? protectedArea : probation;
+        if (victimArea.isEmpty()) {
+            //capacity is so small that there is no main area at all
+            return;
+        }
+        K victimKey = victimArea.keySet().iterator().next();
+        if (sketch.frequency(candidateKey) > sketch.frequency(victimKey)) {
+            victimArea.remove(victimKey);
+            probation.put(candidateKey, candidateValue);
+        }
+    }
+
+    private void promote(K key, V value) {
+        protectedArea.put(key, value);
+        if (protectedArea.size() > protectedCapacity) {
+            //the protected area is full, its least recently used key goes back on probation
+            //it is added at the most recently used end of probation, so it is not the next victim
+            Map.Entry<K, V> demoted = removeEldest(protectedArea);
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> map) {
+        Iterator<Map.Entry<K, V>> iterator = map.entrySet().iterator();
+        Map.Entry<K, V> next = iterator.next();
+        //copy key and value first, the entry should not be used after it is removed from the map
+        Map.Entry<K, V> eldest = Map.entry(next.getKey(), next.getValue());
+        iterator.remove();
+        return eldest;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        window.forEach((key, value) -> joiner.add(key + "=" + value));
+        probation.forEach((key, value) -> joiner.add(key + "=" + value));
+        protectedArea.forEach((key, value) -> joiner.add(key + "=" + value));
+        return joiner.toString();
+    }
+}
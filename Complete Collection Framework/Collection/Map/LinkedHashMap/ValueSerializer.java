@@ -0,0 +1,80 @@
+package Collection.Map.LinkedHashMap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+//Turns a value into bytes and back, so that OffHeapLRUCache can store it outside of the Java heap
+//(and PerfectHashMap can write its keys and values to a file)
+//deserialize() gets a buffer that contains exactly the bytes written by serialize(), from position 0 to limit
+public interface ValueSerializer<V> {
+    byte[] serialize(V value);
+
+    V deserialize(ByteBuffer bytes);
+
+    //true when serialize(value) gives exactly the bytes of buffer from offset to offset + length, read with absolute gets
+    //MappedPerfectHashMap compares a key with the key in the file this way, without creating a key object from the file
+    //the default still serializes the value into a new array, utf8() and int32() compare without creating anything
+    default boolean matches(V value, ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = serialize(value);
+        if (bytes.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static ValueSerializer<String> utf8() {
+        return new ValueSerializer<>() {
+            @Override
+            public byte[] serialize(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String deserialize(ByteBuffer bytes) {
+                return StandardCharsets.UTF_8.decode(bytes).toString();
+            }
+
+            //an ASCII char is one byte with the same value in UTF-8, only other chars need the real encoder
+            @Override
+            public boolean matches(String value, ByteBuffer buffer, int offset, int length) {
+                if (value.length() > length) {
+                    return false;
+                }
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if (c >= 0x80) {
+                        return ValueSerializer.super.matches(value, buffer, offset, length);
+                    }
+                    if (buffer.get(offset + i) != c) {
+                        return false;
+                    }
+                }
+                return value.length() == length;
+            }
+        };
+    }
+
+    static ValueSerializer<Integer> int32() {
+        return new ValueSerializer<>() {
+            @Override
+            public byte[] serialize(Integer value) {
+                return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+            }
+
+            @Override
+            public Integer deserialize(ByteBuffer bytes) {
+                return bytes.getInt(bytes.position());
+            }
+
+            @Override
+            public boolean matches(Integer value, ByteBuffer buffer, int offset, int length) {
+                return length == Integer.BYTES && buffer.getInt(offset) == value;
+            }
+        };
+    }
+}
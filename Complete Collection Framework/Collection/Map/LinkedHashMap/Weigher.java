@@ -0,0 +1,8 @@
+package Collection.Map.LinkedHashMap;
+
+//Tells a WeightedLRUCache how "heavy" an entry is, for example the size of the value in bytes
+//The weight is calculated once when the entry is put into the cache, so it must not change while the entry is cached
+@FunctionalInterface
+public interface Weigher<K, V> {
+    int weigh(K key, V value);
+}
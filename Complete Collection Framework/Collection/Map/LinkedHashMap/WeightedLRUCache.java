@@ -0,0 +1,130 @@
+package Collection.Map.LinkedHashMap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.StringJoiner;
+
+//LRUCache bounds the number of entries, which is a bad limit when values are of very different sizes
+//(1000 entries of 100 bytes and 1000 entries of 5 MB are very different amounts of heap)
+//WeightedLRUCache bounds the total weight of the entries instead, the Weigher decides what one entry weighs
+//It uses the same access ordered LinkedHashMap, and every entry remembers the weight it was admitted with
+//After each write the least recently used entries are evicted until the total weight is under the limit again
+//Each evicted entry is removed with one iterator step, so a big entry that pushes out many small ones
+//is admitted in one pass over the eldest entries (linear in the number of evicted entries, never quadratic)
+public class WeightedLRUCache<K, V> {
+    private final LinkedHashMap<K, Weighted<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maximumWeight;
+    private final Weigher<? super K, ? super V> weigher;
+    private long totalWeight;
+
+    WeightedLRUCache(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    public static void main(String[] args) {
+        //a cache of file contents limited to 10 KB, weight of an entry is the length of the content
+        WeightedLRUCache<String, byte[]> fileCache = new WeightedLRUCache<>(10 * 1024, (name, content) -> content.length);
+        for (int i = 1; i <= 9; i++) {
+            fileCache.put("small" + i, new byte[1024]);
+        }
+        System.out.println(fileCache.size() + " entries, " + fileCache.totalWeight() + " bytes");//9 entries, 9216 bytes
+
+        fileCache.get("small1");//small1 is now the most recently used
+        //a 5 KB file does not fit in the 1 KB that is left, the 4 least recently used small files are evicted in one go
+        fileCache.put("large", new byte[5 * 1024]);
+        System.out.println(fileCache.size() + " entries, " + fileCache.totalWeight() + " bytes");//6 entries, 10240 bytes
+        System.out.println(fileCache.containsKey("small1"));//true
+        System.out.println(fileCache.containsKey("small2"));//false
+
+        //an entry heavier than the whole cache is never admitted
+        fileCache.put("huge", new byte[20 * 1024]);
+        System.out.println(fileCache.containsKey("huge"));//false
+    }
+
+    public V get(K key) {
+        Weighted<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight cannot be negative: " + weight);
+        }
+        Weighted<V> old = entries.remove(key);
+        if (old != null) {
+            totalWeight -= old.weight;
+        }
+        if (weight > maximumWeight) {
+            //would evict the whole cache and still not fit, so it is not cached at all
+            return old == null ? null : old.value;
+        }
+        entries.put(key, new Weighted<>(value, weight));
+        totalWeight += weight;
+        evictUntilUnderMaximum();
+        return old == null ? null : old.value;
+    }
+
+    public V remove(K key) {
+        Weighted<V> old = entries.remove(key);
+        if (old == null) {
+            return null;
+        }
+        totalWeight -= old.weight;
+        return old.value;
+    }
+
+    public boolean containsKey(K key) {
+        return entries.containsKey(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long totalWeight() {
+        return totalWeight;
+    }
+
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    public void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    private void evictUntilUnderMaximum() {
+        //the eldest entry of an access ordered LinkedHashMap is the least recently used one
+        Iterator<Weighted<V>> iterator = entries.values().iterator();
+        while (totalWeight > maximumWeight && iterator.hasNext()) {
+            totalWeight -= iterator.next().weight;
+            iterator.remove();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        entries.forEach((key, entry) -> joiner.add(key + "=" + entry.value));
+        return joiner.toString();
+    }
+
+    private static class Weighted<V> {
+        final V value;
+        final int weight;
+
+        Weighted(V value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package Collection.Map.PrimitiveMap;
+
+//Like BiConsumer<Integer, V>, but the key is passed as a plain int so nothing is boxed while iterating
+@FunctionalInterface
+public interface IntObjConsumer<V> {
+    void accept(int key, V value);
+}
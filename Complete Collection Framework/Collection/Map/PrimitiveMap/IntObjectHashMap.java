@@ -0,0 +1,278 @@
+package Collection.Map.PrimitiveMap;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+//HashMap<Integer, String> boxes every key into an Integer object and wraps every entry in a Node object
+//so one entry costs three objects and every lookup follows pointers all over the heap
+//IntObjectHashMap keeps the keys in a flat int[] and the values in an Object[] at the same index (open addressing)
+//Collisions are solved with linear probing : if a slot is taken we try the next slot, and the next, ...
+//Key 0 marks an empty slot in the array, so the key 0 itself is stored in two separate fields
+//Not synchronized (not thread safe), just like HashMap
+public class IntObjectHashMap<V> {
+    private static final int EMPTY = 0;
+    //at most half of the slots are used, so probe sequences stay short
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    public IntObjectHashMap() {
+        this(16);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize cannot be negative: " + expectedSize);
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public static void main(String[] args) {
+        //same operations as HashMapDemo, but the roll numbers are never boxed into Integer objects
+        IntObjectHashMap<String> students = new IntObjectHashMap<>();
+        students.put(1, "Mike");
+        students.put(2, "John");
+        students.put(3, "David");
+        students.put(4, "Alice");
+        System.out.println(students);
+
+        System.out.println(students.get(2));//John
+        System.out.println(students.get(78));//null
+        System.out.println(students.containsKey(2));//true
+        System.out.println(students.containsValue("Mike"));//true
+        System.out.println(students.getOrDefault(5, "Not Found"));//Not Found
+
+        students.putIfAbsent(5, "Mikee");
+        students.put(1, "Mikee");
+        System.out.println(students.remove(3, "Mikee"));//false, 3 is mapped to David
+
+        //no Map.Entry objects and no Integer objects are created while iterating
+        students.forEach((rollNumber, name) -> System.out.println(rollNumber + " " + name));
+    }
+
+    public V get(int key) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : null;
+        }
+        int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    public V getOrDefault(int key, V defaultValue) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : valueAt(index);
+    }
+
+    public boolean containsKey(int key) {
+        return key == EMPTY ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    public boolean containsValue(Object value) {
+        if (hasZeroKey && Objects.equals(zeroValue, value)) {
+            return true;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && Objects.equals(values[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public V put(int key, V value) {
+        if (key == EMPTY) {
+            V old = zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return old;
+        }
+        int index = hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                V old = valueAt(index);
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            if (keys.length == MAXIMUM_CAPACITY) {
+                throw new IllegalStateException("map is full");
+            }
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    //like HashMap, a key that is mapped to null counts as absent
+    public V putIfAbsent(int key, V value) {
+        V current = get(key);
+        if (current == null) {
+            put(key, value);
+        }
+        return current;
+    }
+
+    public V remove(int key) {
+        if (key == EMPTY) {
+            V old = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size--;
+            }
+            return old;
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V old = valueAt(index);
+        removeAt(index);
+        return old;
+    }
+
+    //removes the key only if it is mapped to the given value
+    public boolean remove(int key, Object value) {
+        if (key == EMPTY) {
+            if (hasZeroKey && Objects.equals(zeroValue, value)) {
+                remove(key);
+                return true;
+            }
+            return false;
+        }
+        int index = indexOf(key);
+        if (index < 0 || !Objects.equals(values[index], value)) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public void forEach(IntObjConsumer<? super V> action) {
+        if (hasZeroKey) {
+            action.accept(EMPTY, zeroValue);
+        }
+        int[] keys = this.keys;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(keys[i], valueAt(i));
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    private int indexOf(int key) {
+        int index = hash(key) & mask;
+        int current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    //backward shift deletion : instead of leaving a "deleted" marker, entries after the hole that probed past it
+    //are moved back into the hole, so lookups never have to skip over deleted slots
+    private void removeAt(int index) {
+        size--;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            //move the entry only if its home slot is not between the hole and its current slot (cyclically)
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = hash(key) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    //roll numbers are usually consecutive, multiplying by the golden ratio spreads them over the whole table
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long needed = Math.max(2, (long) Math.ceil(expectedSize / (double) LOAD_FACTOR));
+        if (needed > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("expectedSize is too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(key + "=" + value));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,7 @@
+package Collection.Map.PrimitiveMap;
+
+//Like BiConsumer<Long, V>, but the key is passed as a plain long so nothing is boxed while iterating
+@FunctionalInterface
+public interface LongObjConsumer<V> {
+    void accept(long key, V value);
+}
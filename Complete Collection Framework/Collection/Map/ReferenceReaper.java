@@ -0,0 +1,197 @@
+package Collection.Map;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+//GarbageCollectionDemo shows that the JVM clears a WeakReference when the object is not strongly reachable any more,
+//but nobody is told about it, a structure only finds out when it happens to call get() again
+//If we pass a ReferenceQueue to the reference, the GC puts the reference into the queue after clearing it
+//ReferenceReaper is one shared daemon thread that waits on one ReferenceQueue for all the weak/soft structures:
+//1. a structure creates its references with reaper.queue() and makes them implement Reapable
+//2. the reaper takes cleared references out of the queue in batches (up to batchSize at a time)
+//3. the batch is grouped by listener, and every listener is called once with all of its references
+//So side tables are cleaned up right after a GC, not on the next access, and there is only one thread for all of them
+//Back pressure : if the reaper is behind (its last batch was full), threads that create new references call
+//helpIfBehind() and drain one batch themselves before adding more work, just like ConcurrentHashMap makes
+//writers help with a resize. Listeners can therefore be called from any thread and must be thread safe
+//A reaper created with the constructor owns its thread, close() stops it. The shared() reaper lives as long as the JVM
+public final class ReferenceReaper implements AutoCloseable {
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final ReferenceReaper SHARED = new ReferenceReaper("reference-reaper", DEFAULT_BATCH_SIZE);
+
+    //implemented by the Reference subclasses that are registered with reaper.queue()
+    public interface Reapable {
+        ReapListener reapListener();
+    }
+
+    //called once per batch with all cleared references that belong to this listener
+    @FunctionalInterface
+    public interface ReapListener {
+        void referencesCleared(List<Reapable> references);
+    }
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final int batchSize;
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile boolean behind;
+    private volatile long reapedCount;
+
+    public ReferenceReaper(String threadName, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.thread = new Thread(this::run, threadName);
+        //a daemon thread does not keep the JVM alive when the program is done
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static ReferenceReaper shared() {
+        return SHARED;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ReferenceReaper reaper = ReferenceReaper.shared();
+        ReapListener listener = references ->
+                System.out.println("Cleared " + references.size() + " phone(s) on " + Thread.currentThread().getName());
+
+        List<PhoneReference> references = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            //nothing else points to these phones, so they can be collected at the next GC
+            references.add(new PhoneReference(new Phone("Apple", "iPhone " + i), reaper.queue(), listener));
+        }
+        System.gc();
+        Thread.sleep(500);
+        //all 1000 references are reported in a few batches, without us calling get() on any of them
+        System.out.println("Reaped so far: " + reaper.reapedCount());
+    }
+
+    //every Reference type can be registered with this queue, whatever the type of its referent
+    public ReferenceQueue<Object> queue() {
+        return queue;
+    }
+
+    public long reapedCount() {
+        return reapedCount;
+    }
+
+    //stops the reaper thread, references cleared after this are not reported any more
+    //so close the reaper only when the structures that use its queue are no longer used
+    @Override
+    public void close() {
+        if (this == SHARED) {
+            throw new UnsupportedOperationException("the shared reaper cannot be closed");
+        }
+        closed = true;
+        //wakes the thread up if it is waiting on the queue
+        thread.interrupt();
+    }
+
+    //call this before creating many new references, drains one batch on the calling thread if the reaper is behind
+    public void helpIfBehind() {
+        if (behind && drainLock.tryLock()) {
+            try {
+                drainBatch(queue.poll());
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                //wait for the first cleared reference, then take whatever else is already in the queue
+                Reference<?> first = queue.remove(TimeUnit.SECONDS.toMillis(1));
+                if (first == null) {
+                    behind = false;
+                    continue;
+                }
+                drainLock.lock();
+                try {
+                    drainBatch(first);
+                } finally {
+                    drainLock.unlock();
+                }
+            } catch (InterruptedException e) {
+                //only close() ends the loop, any other interrupt is not a reason to stop
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void drainBatch(Reference<?> first) {
+        if (first == null) {
+            behind = false;
+            return;
+        }
+        List<Reapable> batch = new ArrayList<>();
+        Reference<?> reference = first;
+        while (reference != null) {
+            if (reference instanceof Reapable) {
+                batch.add((Reapable) reference);
+            }
+            if (batch.size() == batchSize) {
+                break;
+            }
+            reference = queue.poll();
+        }
+        //a full batch means there is probably more waiting in the queue
+        behind = batch.size() == batchSize;
+        dispatch(batch);
+        reapedCount += batch.size();
+    }
+
+    private void dispatch(List<Reapable> batch) {
+        //IdentityHashMap : listeners are grouped by identity, their equals() does not matter here
+        Map<ReapListener, List<Reapable>> byListener = new IdentityHashMap<>();
+        for (Reapable reapable : batch) {
+            byListener.computeIfAbsent(reapable.reapListener(), l -> new ArrayList<>()).add(reapable);
+        }
+        for (Map.Entry<ReapListener, List<Reapable>> entry : byListener.entrySet()) {
+            try {
+                entry.getKey().referencesCleared(entry.getValue());
+            } catch (Throwable e) {
+                //one broken listener must not stop the reaper for every other structure, so even an Error is caught,
+                //handed to the uncaught exception handler of the thread (which prints it by default) and the loop goes on
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+
+    //only for the demo, any object can be the referent
+    private static class Phone {
+        final String brand;
+        final String model;
+
+        Phone(String brand, String model) {
+            this.brand = brand;
+            this.model = model;
+        }
+    }
+
+    private static class PhoneReference extends WeakReference<Phone> implements Reapable {
+        private final ReapListener listener;
+
+        PhoneReference(Phone phone, ReferenceQueue<Object> queue, ReapListener listener) {
+            super(phone, queue);
+            this.listener = listener;
+        }
+
+        @Override
+        public ReapListener reapListener() {
+            return listener;
+        }
+    }
+}
@@ -0,0 +1,1481 @@
+package Collection.Map.SortedMapDemo.BTreeMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+//TreeMap is a red-black tree : one node object per entry, and every step of a search jumps to another node
+//somewhere in the heap (a cache miss), so firstKey, ceilingKey, headMap, subMap, ... all pay for ~log2(n) cache misses
+//BTreeMap is a B+tree, the same structure databases use for their indexes:
+//1. every node holds up to 64 keys in an array, so a search is only ~log64(n) node hops (4 hops for 10 million keys)
+//   and inside a node it is a binary search over one array that sits in a few cache lines
+//2. all entries are in the leaf nodes, inner nodes only hold separator keys to find the right leaf
+//3. the leaves are linked to each other (next / prev), so iterating a range (subMap, headMap, ...) is
+//   just walking arrays one after another, without going back up the tree
+//4. every inner node also stores how many entries are below each of its children, so rank(key) (position of a key),
+//   select(index) (key at a position) and size() of a subMap / headMap / tailMap view are O(log n) instead of a walk
+//It implements the whole NavigableMap interface, including the views (subMap, headMap, tailMap, descendingMap,
+//navigableKeySet, ...), which are backed by the map just like the TreeMap views
+//Null keys are not allowed. Not synchronized (not thread safe)
+public class BTreeMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    static final int LEAF_CAPACITY = 64;
+    static final int INNER_CAPACITY = 64;
+    //a node (other than the root) with fewer entries/children than this borrows from or merges with a sibling
+    static final int LEAF_MIN = LEAF_CAPACITY / 2;
+    static final int INNER_MIN = INNER_CAPACITY / 2;
+
+    private static final int LOWER = 0;
+    private static final int FLOOR = 1;
+    private static final int CEILING = 2;
+    private static final int HIGHER = 3;
+
+    private final Comparator<? super K> comparator;
+    private Node root;
+    private Leaf firstLeaf;
+    private Leaf lastLeaf;
+    private int size;
+    private int modCount;
+
+    //result of the last insert into a node that was split : the first key of the new right node
+    private Object splitKey;
+    private Object removedValue;
+
+    //the whole map as an unbounded view, the navigation methods are implemented once in SubMap and shared
+    private final SubMap<K, V> fullView = new SubMap<>(this, true, null, true, true, null, true, false);
+
+    public BTreeMap() {
+        this((Comparator<? super K>) null);
+    }
+
+    public BTreeMap(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+        Leaf leaf = new Leaf();
+        root = leaf;
+        firstLeaf = leaf;
+        lastLeaf = leaf;
+    }
+
+    public BTreeMap(Map<? extends K, ? extends V> map) {
+        this((Comparator<? super K>) null);
+        if (map instanceof SortedMap && ((SortedMap<?, ?>) map).comparator() == null) {
+            //already sorted by the natural ordering, build the tree in one pass
+            buildFromSorted(map.size(), map.entrySet().iterator());
+        } else {
+            putAll(map);
+        }
+    }
+
+    //same ordering as the given map, the tree is built bottom up in O(n) instead of n put() calls
+    public BTreeMap(SortedMap<K, ? extends V> map) {
+        this(map.comparator());
+        buildFromSorted(map.size(), map.entrySet().iterator());
+    }
+
+    public static void main(String[] args) {
+        //same calls as NavigableMapDemo and TreeMapDemo, only the implementation changes
+        NavigableMap<Integer, String> navigableMap = new BTreeMap<>();
+        navigableMap.put(1, "One");
+        navigableMap.put(6, "Six");
+        navigableMap.put(3, "Three");
+        navigableMap.put(7, "Seven");
+        System.out.println(navigableMap);//{1=One, 3=Three, 6=Six, 7=Seven}
+        System.out.println(navigableMap.lowerKey(4));//3
+        System.out.println(navigableMap.ceilingKey(4));//6
+        System.out.println(navigableMap.higherEntry(1));//3=Three
+        System.out.println(navigableMap.descendingMap());//{7=Seven, 6=Six, 3=Three, 1=One}
+
+        SortedMap<String, Integer> studentMarks = new BTreeMap<>();
+        studentMarks.put("Bob", 80);
+        studentMarks.put("David", 60);
+        studentMarks.put("Charlie", 70);
+        studentMarks.put("Alice", 90);
+        System.out.println(studentMarks.firstKey());//Alice
+        System.out.println(studentMarks.headMap("Charlie"));//{Alice=90, Bob=80}
+        System.out.println(studentMarks.tailMap("Charlie"));//{Charlie=70, David=60}
+        System.out.println(studentMarks.subMap("Bob", "David"));//{Bob=80, Charlie=70}
+
+        //range scan on a big map : a few node hops to find the start, then sequential leaf arrays
+        BTreeMap<Integer, Integer> big = new BTreeMap<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            big.put(i, i);
+        }
+        long sum = 0;
+        for (int value : big.subMap(250_000, 750_000).values()) {
+            sum += value;
+        }
+        System.out.println(sum);//249999750000
+
+        //leaderboard ordered by score (highest first), rank and k-th place without walking the map
+        BTreeMap<Integer, String> leaderboard = new BTreeMap<>(Comparator.reverseOrder());
+        leaderboard.put(1200, "Mike");
+        leaderboard.put(900, "John");
+        leaderboard.put(1500, "Rita");
+        leaderboard.put(700, "Sam");
+        System.out.println(leaderboard.rank(900));//2 (0 based : Rita and Mike are ahead of John)
+        System.out.println(leaderboard.selectEntry(0));//1500=Rita
+        System.out.println(leaderboard.headMap(1000).size());//2 players above 1000
+        System.out.println(big.subMap(250_000, 750_000).size());//500000, computed from two ranks
+    }
+
+    //---------------------------------------------------------------- basic Map operations
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Leaf leaf = findLeaf(key);
+        return search(leaf, key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        Leaf leaf = findLeaf(key);
+        int index = search(leaf, key);
+        return index >= 0 ? valueAt(leaf, index) : null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        if (comparator == null && size == 0) {
+            //fail fast for keys that are not Comparable, like TreeMap does
+            compare(key, key);
+        }
+        removedValue = null;
+        int sizeBefore = size;
+        Node right = insert(root, key, value);
+        if (right != null) {
+            //the root was split, the tree grows by one level at the top
+            Inner newRoot = new Inner();
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.keys[0] = splitKey;
+            newRoot.counts[0] = count(root);
+            newRoot.counts[1] = count(right);
+            newRoot.size = 2;
+            root = newRoot;
+        }
+        if (size != sizeBefore) {
+            modCount++;
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        V old = (V) removedValue;
+        removedValue = null;
+        return old;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        if (!delete(root, key)) {
+            return null;
+        }
+        if (root instanceof Inner && root.size == 1) {
+            //the root has only one child left, the tree shrinks by one level
+            root = ((Inner) root).children[0];
+        }
+        size--;
+        modCount++;
+        @SuppressWarnings("unchecked")
+        V old = (V) removedValue;
+        removedValue = null;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        Leaf leaf = new Leaf();
+        root = leaf;
+        firstLeaf = leaf;
+        lastLeaf = leaf;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    //---------------------------------------------------------------- rank and select
+
+    //number of keys that come before the key in the map, that is the index of the key if it is in the map
+    public int rank(K key) {
+        Objects.requireNonNull(key);
+        return countBelow(key, false);
+    }
+
+    //the key at the given index (0 based) in the order of the map
+    public K select(int index) {
+        @SuppressWarnings("unchecked")
+        K key = (K) positionAt(index).key();
+        return key;
+    }
+
+    public Map.Entry<K, V> selectEntry(int index) {
+        Position p = positionAt(index);
+        @SuppressWarnings("unchecked")
+        Map.Entry<K, V> entry = new SimpleImmutableEntry<>((K) p.key(), (V) p.value());
+        return entry;
+    }
+
+    //---------------------------------------------------------------- navigation, shared with the views
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return fullView.lowerEntry(key);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return fullView.lowerKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return fullView.floorEntry(key);
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return fullView.floorKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return fullView.ceilingEntry(key);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return fullView.ceilingKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return fullView.higherEntry(key);
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return fullView.higherKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return fullView.firstEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return fullView.lastEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return fullView.pollFirstEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return fullView.pollLastEntry();
+    }
+
+    @Override
+    public K firstKey() {
+        return fullView.firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return fullView.lastKey();
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return fullView.descendingMap();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return fullView.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> keySet() {
+        return fullView.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return fullView.descendingKeySet();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return fullView.entrySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return fullView.subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return fullView.headMap(toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return fullView.tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    //---------------------------------------------------------------- bulk load
+
+    //Builds the tree of an empty map from n entries that are in ascending order without duplicates, in O(n):
+    //1. the entries are spread evenly over ceil(n / 64) leaves, so every leaf is at least half full and no leaf is split
+    //2. the level above is built the same way from the leaves, with the first key of every child as separator,
+    //   and so on until one node is left, which becomes the root
+    //No key is ever compared, so the caller must make sure the entries really are sorted
+    void buildFromSorted(int n, Iterator<? extends Map.Entry<? extends K, ? extends V>> entries) {
+        if (n == 0) {
+            return;
+        }
+        int leafCount = (n + LEAF_CAPACITY - 1) / LEAF_CAPACITY;
+        Node[] level = new Node[leafCount];
+        int[] counts = new int[leafCount];
+        Object[] firstKeys = new Object[leafCount];
+        Leaf previous = null;
+        for (int i = 0; i < leafCount; i++) {
+            Leaf leaf = new Leaf();
+            int count = share(n, leafCount, i);
+            for (int j = 0; j < count; j++) {
+                Map.Entry<? extends K, ? extends V> entry = entries.next();
+                leaf.keys[j] = Objects.requireNonNull(entry.getKey());
+                leaf.values[j] = entry.getValue();
+            }
+            leaf.size = count;
+            leaf.prev = previous;
+            if (previous != null) {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level[i] = leaf;
+            counts[i] = count;
+            firstKeys[i] = leaf.keys[0];
+        }
+        firstLeaf = (Leaf) level[0];
+        lastLeaf = previous;
+        while (level.length > 1) {
+            int parentCount = (level.length + INNER_CAPACITY - 1) / INNER_CAPACITY;
+            Node[] parents = new Node[parentCount];
+            int[] parentCounts = new int[parentCount];
+            Object[] parentFirstKeys = new Object[parentCount];
+            int child = 0;
+            for (int i = 0; i < parentCount; i++) {
+                Inner inner = new Inner();
+                int count = share(level.length, parentCount, i);
+                parentFirstKeys[i] = firstKeys[child];
+                for (int j = 0; j < count; j++, child++) {
+                    inner.children[j] = level[child];
+                    inner.counts[j] = counts[child];
+                    parentCounts[i] += counts[child];
+                    if (j > 0) {
+                        inner.keys[j - 1] = firstKeys[child];
+                    }
+                }
+                inner.size = count;
+                parents[i] = inner;
+            }
+            level = parents;
+            counts = parentCounts;
+            firstKeys = parentFirstKeys;
+        }
+        root = level[0];
+        size = n;
+        modCount++;
+    }
+
+    //number of keys < key (or <= key if inclusive) : the counts of the children left of the search path are added up
+    private int countBelow(Object key, boolean inclusive) {
+        int count = 0;
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int childIndex = childIndex(inner, key);
+            for (int i = 0; i < childIndex; i++) {
+                count += inner.counts[i];
+            }
+            node = inner.children[childIndex];
+        }
+        int index = search((Leaf) node, key);
+        if (index >= 0) {
+            return count + (inclusive ? index + 1 : index);
+        }
+        return count - index - 1;
+    }
+
+    //follows the counts down to the leaf that holds the entry at the index
+    private Position positionAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int i = 0;
+            while (index >= inner.counts[i]) {
+                index -= inner.counts[i];
+                i++;
+            }
+            node = inner.children[i];
+        }
+        return new Position((Leaf) node, index);
+    }
+
+    private static int count(Node node) {
+        if (node instanceof Leaf) {
+            return node.size;
+        }
+        Inner inner = (Inner) node;
+        int count = 0;
+        for (int i = 0; i < inner.size; i++) {
+            count += inner.counts[i];
+        }
+        return count;
+    }
+
+    //size of part i when total items are split into parts that differ by at most one
+    private static int share(int total, int parts, int i) {
+        return total / parts + (i < total % parts ? 1 : 0);
+    }
+
+    //---------------------------------------------------------------- tree internals
+
+    @SuppressWarnings("unchecked")
+    final int compare(Object a, Object b) {
+        return comparator == null ? ((Comparable<Object>) a).compareTo(b) : comparator.compare((K) a, (K) b);
+    }
+
+    private Leaf findLeaf(Object key) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[childIndex(inner, key)];
+        }
+        return (Leaf) node;
+    }
+
+    //number of separators that are <= key, that is the child whose range contains the key
+    private int childIndex(Inner inner, Object key) {
+        int low = 0;
+        int high = inner.size - 2;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(inner.keys[mid], key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    //index of the key in the leaf, or -(insertion point) - 1 like Arrays.binarySearch
+    private int search(Leaf leaf, Object key) {
+        int low = 0;
+        int high = leaf.size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(leaf.keys[mid], key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    //inserts into the subtree, returns the new right sibling if the node had to be split (and sets splitKey)
+    private Node insert(Node node, K key, V value) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = search(leaf, key);
+            if (index >= 0) {
+                removedValue = leaf.values[index];
+                leaf.values[index] = value;
+                return null;
+            }
+            index = -index - 1;
+            size++;
+            if (leaf.size < LEAF_CAPACITY) {
+                insertIntoLeaf(leaf, index, key, value);
+                return null;
+            }
+            Leaf right = splitLeaf(leaf);
+            if (index <= leaf.size) {
+                insertIntoLeaf(leaf, index, key, value);
+            } else {
+                insertIntoLeaf(right, index - leaf.size, key, value);
+            }
+            splitKey = right.keys[0];
+            return right;
+        }
+        Inner inner = (Inner) node;
+        int childIndex = childIndex(inner, key);
+        Node child = inner.children[childIndex];
+        int sizeBefore = size;
+        Node newChild = insert(child, key, value);
+        if (newChild == null) {
+            if (size != sizeBefore) {
+                inner.counts[childIndex]++;
+            }
+            return null;
+        }
+        Object separator = splitKey;
+        int childCount = count(child);
+        int newChildCount = count(newChild);
+        if (inner.size < INNER_CAPACITY) {
+            insertIntoInner(inner, childIndex, separator, newChild, childCount, newChildCount);
+            return null;
+        }
+        Inner right = splitInner(inner);
+        Object pushedUp = splitKey;
+        if (childIndex < inner.size) {
+            insertIntoInner(inner, childIndex, separator, newChild, childCount, newChildCount);
+        } else {
+            insertIntoInner(right, childIndex - inner.size, separator, newChild, childCount, newChildCount);
+        }
+        splitKey = pushedUp;
+        return right;
+    }
+
+    private static void insertIntoLeaf(Leaf leaf, int index, Object key, Object value) {
+        System.arraycopy(leaf.keys, index, leaf.keys, index + 1, leaf.size - index);
+        System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.size - index);
+        leaf.keys[index] = key;
+        leaf.values[index] = value;
+        leaf.size++;
+    }
+
+    //puts the separator at keys[childIndex] and the new child right after the child that was split
+    private static void insertIntoInner(Inner inner, int childIndex, Object separator, Node child,
+                                        int splitChildCount, int newChildCount) {
+        System.arraycopy(inner.keys, childIndex, inner.keys, childIndex + 1, inner.size - 1 - childIndex);
+        System.arraycopy(inner.children, childIndex + 1, inner.children, childIndex + 2, inner.size - 1 - childIndex);
+        System.arraycopy(inner.counts, childIndex + 1, inner.counts, childIndex + 2, inner.size - 1 - childIndex);
+        inner.keys[childIndex] = separator;
+        inner.children[childIndex + 1] = child;
+        inner.counts[childIndex] = splitChildCount;
+        inner.counts[childIndex + 1] = newChildCount;
+        inner.size++;
+    }
+
+    //moves the upper half of a full leaf into a new leaf that is linked in right after it
+    private Leaf splitLeaf(Leaf leaf) {
+        Leaf right = new Leaf();
+        int half = leaf.size / 2;
+        right.size = leaf.size - half;
+        System.arraycopy(leaf.keys, half, right.keys, 0, right.size);
+        System.arraycopy(leaf.values, half, right.values, 0, right.size);
+        Arrays.fill(leaf.keys, half, leaf.size, null);
+        Arrays.fill(leaf.values, half, leaf.size, null);
+        leaf.size = half;
+        right.next = leaf.next;
+        right.prev = leaf;
+        if (leaf.next != null) {
+            leaf.next.prev = right;
+        } else {
+            lastLeaf = right;
+        }
+        leaf.next = right;
+        return right;
+    }
+
+    //moves the upper half of the children into a new node, the separator between the halves goes up (splitKey)
+    private Inner splitInner(Inner inner) {
+        Inner right = new Inner();
+        int half = inner.size / 2;
+        right.size = inner.size - half;
+        System.arraycopy(inner.children, half, right.children, 0, right.size);
+        System.arraycopy(inner.counts, half, right.counts, 0, right.size);
+        System.arraycopy(inner.keys, half, right.keys, 0, right.size - 1);
+        splitKey = inner.keys[half - 1];
+        Arrays.fill(inner.children, half, inner.size, null);
+        Arrays.fill(inner.keys, half - 1, inner.size - 1, null);
+        inner.size = half;
+        return right;
+    }
+
+    //removes the key from the subtree, fixes children that became too small on the way back up
+    private boolean delete(Node node, Object key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = search(leaf, key);
+            if (index < 0) {
+                return false;
+            }
+            removedValue = leaf.values[index];
+            removeFromLeaf(leaf, index);
+            return true;
+        }
+        Inner inner = (Inner) node;
+        int childIndex = childIndex(inner, key);
+        Node child = inner.children[childIndex];
+        if (!delete(child, key)) {
+            return false;
+        }
+        inner.counts[childIndex]--;
+        int min = child instanceof Leaf ? LEAF_MIN : INNER_MIN;
+        if (child.size < min) {
+            rebalance(inner, childIndex);
+        }
+        return true;
+    }
+
+    private static void removeFromLeaf(Leaf leaf, int index) {
+        int moved = leaf.size - index - 1;
+        System.arraycopy(leaf.keys, index + 1, leaf.keys, index, moved);
+        System.arraycopy(leaf.values, index + 1, leaf.values, index, moved);
+        leaf.size--;
+        leaf.keys[leaf.size] = null;
+        leaf.values[leaf.size] = null;
+    }
+
+    //the child at childIndex is too small : borrow one entry from a sibling that has spare ones, otherwise merge
+    private void rebalance(Inner parent, int childIndex) {
+        Node child = parent.children[childIndex];
+        Node left = childIndex > 0 ? parent.children[childIndex - 1] : null;
+        Node right = childIndex < parent.size - 1 ? parent.children[childIndex + 1] : null;
+        int min = child instanceof Leaf ? LEAF_MIN : INNER_MIN;
+        if (left != null && left.size > min) {
+            borrowFromLeft(parent, childIndex);
+        } else if (right != null && right.size > min) {
+            borrowFromRight(parent, childIndex);
+        } else if (left != null) {
+            merge(parent, childIndex - 1);
+        } else if (right != null) {
+            merge(parent, childIndex);
+        }
+    }
+
+    private void borrowFromLeft(Inner parent, int childIndex) {
+        Node child = parent.children[childIndex];
+        Node left = parent.children[childIndex - 1];
+        if (child instanceof Leaf) {
+            Leaf leaf = (Leaf) child;
+            Leaf leftLeaf = (Leaf) left;
+            int last = leftLeaf.size - 1;
+            insertIntoLeaf(leaf, 0, leftLeaf.keys[last], leftLeaf.values[last]);
+            removeFromLeaf(leftLeaf, last);
+            parent.keys[childIndex - 1] = leaf.keys[0];
+            parent.counts[childIndex - 1]--;
+            parent.counts[childIndex]++;
+        } else {
+            Inner inner = (Inner) child;
+            Inner leftInner = (Inner) left;
+            //the separator comes down into the child, the last key of the left sibling goes up
+            System.arraycopy(inner.keys, 0, inner.keys, 1, inner.size - 1);
+            System.arraycopy(inner.children, 0, inner.children, 1, inner.size);
+            System.arraycopy(inner.counts, 0, inner.counts, 1, inner.size);
+            int moved = leftInner.counts[leftInner.size - 1];
+            inner.keys[0] = parent.keys[childIndex - 1];
+            inner.children[0] = leftInner.children[leftInner.size - 1];
+            inner.counts[0] = moved;
+            inner.size++;
+            parent.counts[childIndex - 1] -= moved;
+            parent.counts[childIndex] += moved;
+            parent.keys[childIndex - 1] = leftInner.keys[leftInner.size - 2];
+            leftInner.keys[leftInner.size - 2] = null;
+            leftInner.children[leftInner.size - 1] = null;
+            leftInner.counts[leftInner.size - 1] = 0;
+            leftInner.size--;
+        }
+    }
+
+    private void borrowFromRight(Inner parent, int childIndex) {
+        Node child = parent.children[childIndex];
+        Node right = parent.children[childIndex + 1];
+        if (child instanceof Leaf) {
+            Leaf leaf = (Leaf) child;
+            Leaf rightLeaf = (Leaf) right;
+            insertIntoLeaf(leaf, leaf.size, rightLeaf.keys[0], rightLeaf.values[0]);
+            removeFromLeaf(rightLeaf, 0);
+            parent.keys[childIndex] = rightLeaf.keys[0];
+            parent.counts[childIndex]++;
+            parent.counts[childIndex + 1]--;
+        } else {
+            Inner inner = (Inner) child;
+            Inner rightInner = (Inner) right;
+            int moved = rightInner.counts[0];
+            inner.keys[inner.size - 1] = parent.keys[childIndex];
+            inner.children[inner.size] = rightInner.children[0];
+            inner.counts[inner.size] = moved;
+            inner.size++;
+            parent.keys[childIndex] = rightInner.keys[0];
+            parent.counts[childIndex] += moved;
+            parent.counts[childIndex + 1] -= moved;
+            System.arraycopy(rightInner.keys, 1, rightInner.keys, 0, rightInner.size - 2);
+            System.arraycopy(rightInner.children, 1, rightInner.children, 0, rightInner.size - 1);
+            System.arraycopy(rightInner.counts, 1, rightInner.counts, 0, rightInner.size - 1);
+            rightInner.keys[rightInner.size - 2] = null;
+            rightInner.children[rightInner.size - 1] = null;
+            rightInner.counts[rightInner.size - 1] = 0;
+            rightInner.size--;
+        }
+    }
+
+    //merges the child at index + 1 into the child at index and removes it from the parent
+    private void merge(Inner parent, int index) {
+        Node left = parent.children[index];
+        Node right = parent.children[index + 1];
+        if (left instanceof Leaf) {
+            Leaf leftLeaf = (Leaf) left;
+            Leaf rightLeaf = (Leaf) right;
+            System.arraycopy(rightLeaf.keys, 0, leftLeaf.keys, leftLeaf.size, rightLeaf.size);
+            System.arraycopy(rightLeaf.values, 0, leftLeaf.values, leftLeaf.size, rightLeaf.size);
+            leftLeaf.size += rightLeaf.size;
+            leftLeaf.next = rightLeaf.next;
+            if (rightLeaf.next != null) {
+                rightLeaf.next.prev = leftLeaf;
+            } else {
+                lastLeaf = leftLeaf;
+            }
+        } else {
+            Inner leftInner = (Inner) left;
+            Inner rightInner = (Inner) right;
+            leftInner.keys[leftInner.size - 1] = parent.keys[index];
+            System.arraycopy(rightInner.keys, 0, leftInner.keys, leftInner.size, rightInner.size - 1);
+            System.arraycopy(rightInner.children, 0, leftInner.children, leftInner.size, rightInner.size);
+            System.arraycopy(rightInner.counts, 0, leftInner.counts, leftInner.size, rightInner.size);
+            leftInner.size += rightInner.size;
+        }
+        parent.counts[index] += parent.counts[index + 1];
+        System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.size - 2 - index);
+        System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.size - 2 - index);
+        System.arraycopy(parent.counts, index + 2, parent.counts, index + 1, parent.size - 2 - index);
+        parent.keys[parent.size - 2] = null;
+        parent.children[parent.size - 1] = null;
+        parent.counts[parent.size - 1] = 0;
+        parent.size--;
+    }
+
+    //---------------------------------------------------------------- positions (leaf + index) for navigation
+
+    //the entry that is lower / floor / ceiling / higher than the key, or null
+    private Position position(Object key, int relation) {
+        Leaf leaf = findLeaf(key);
+        int index = search(leaf, key);
+        if (index >= 0) {
+            switch (relation) {
+                case LOWER:
+                    return previous(leaf, index);
+                case HIGHER:
+                    return next(leaf, index);
+                default:
+                    return new Position(leaf, index);
+            }
+        }
+        int insertion = -index - 1;
+        if (relation == CEILING || relation == HIGHER) {
+            return insertion < leaf.size ? new Position(leaf, insertion) : next(leaf, leaf.size - 1);
+        }
+        return insertion > 0 ? new Position(leaf, insertion - 1) : previous(leaf, 0);
+    }
+
+    private Position first() {
+        return firstLeaf.size == 0 ? null : new Position(firstLeaf, 0);
+    }
+
+    private Position last() {
+        return lastLeaf.size == 0 ? null : new Position(lastLeaf, lastLeaf.size - 1);
+    }
+
+    private static Position next(Leaf leaf, int index) {
+        if (index + 1 < leaf.size) {
+            return new Position(leaf, index + 1);
+        }
+        return leaf.next == null ? null : new Position(leaf.next, 0);
+    }
+
+    private static Position previous(Leaf leaf, int index) {
+        if (index > 0) {
+            return new Position(leaf, index - 1);
+        }
+        return leaf.prev == null ? null : new Position(leaf.prev, leaf.prev.size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(Leaf leaf, int index) {
+        return (V) leaf.values[index];
+    }
+
+    private abstract static class Node {
+        //entries in a leaf, children in an inner node
+        int size;
+    }
+
+    private static final class Leaf extends Node {
+        final Object[] keys = new Object[LEAF_CAPACITY];
+        final Object[] values = new Object[LEAF_CAPACITY];
+        Leaf prev;
+        Leaf next;
+    }
+
+    //children[i] holds the keys k with keys[i - 1] <= k < keys[i], counts[i] is the number of entries below children[i]
+    private static final class Inner extends Node {
+        final Object[] keys = new Object[INNER_CAPACITY - 1];
+        final Node[] children = new Node[INNER_CAPACITY];
+        final int[] counts = new int[INNER_CAPACITY];
+    }
+
+    private static final class Position {
+        final Leaf leaf;
+        final int index;
+
+        Position(Leaf leaf, int index) {
+            this.leaf = leaf;
+            this.index = index;
+        }
+
+        Object key() {
+            return leaf.keys[index];
+        }
+
+        Object value() {
+            return leaf.values[index];
+        }
+    }
+
+    //---------------------------------------------------------------- views
+
+    //A range of the map (or the whole map), optionally in descending order, backed by the map
+    //lo/hi are the bounds in the order of the map, descending only changes the direction of the view
+    private static final class SubMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+        private final BTreeMap<K, V> m;
+        private final boolean fromStart;
+        private final Object lo;
+        private final boolean loInclusive;
+        private final boolean toEnd;
+        private final Object hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+
+        SubMap(BTreeMap<K, V> m, boolean fromStart, Object lo, boolean loInclusive,
+               boolean toEnd, Object hi, boolean hiInclusive, boolean descending) {
+            if (!fromStart && !toEnd && m.compare(lo, hi) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            this.m = m;
+            this.fromStart = fromStart;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.toEnd = toEnd;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        //------------------------------------------------ bounds
+
+        private boolean tooLow(Object key) {
+            if (fromStart) {
+                return false;
+            }
+            int c = m.compare(key, lo);
+            return c < 0 || (c == 0 && !loInclusive);
+        }
+
+        private boolean tooHigh(Object key) {
+            if (toEnd) {
+                return false;
+            }
+            int c = m.compare(key, hi);
+            return c > 0 || (c == 0 && !hiInclusive);
+        }
+
+        private boolean inRange(Object key) {
+            return !tooLow(key) && !tooHigh(key);
+        }
+
+        //a bound of a new view may be equal to an exclusive bound of this view only if it is exclusive as well
+        private boolean inRange(Object key, boolean inclusive) {
+            if (!fromStart) {
+                int c = m.compare(key, lo);
+                if (c < 0 || (c == 0 && !loInclusive && inclusive)) {
+                    return false;
+                }
+            }
+            if (!toEnd) {
+                int c = m.compare(key, hi);
+                return c < 0 || (c == 0 && (hiInclusive || !inclusive));
+            }
+            return true;
+        }
+
+        //------------------------------------------------ positions in the order of the map, null if outside of the range
+
+        private Position absLowest() {
+            Position p = fromStart ? m.first() : m.position(lo, loInclusive ? CEILING : HIGHER);
+            return p == null || tooHigh(p.key()) ? null : p;
+        }
+
+        private Position absHighest() {
+            Position p = toEnd ? m.last() : m.position(hi, hiInclusive ? FLOOR : LOWER);
+            return p == null || tooLow(p.key()) ? null : p;
+        }
+
+        private Position absCeiling(Object key) {
+            if (tooLow(key)) {
+                return absLowest();
+            }
+            Position p = m.position(key, CEILING);
+            return p == null || tooHigh(p.key()) ? null : p;
+        }
+
+        private Position absHigher(Object key) {
+            if (tooLow(key)) {
+                return absLowest();
+            }
+            Position p = m.position(key, HIGHER);
+            return p == null || tooHigh(p.key()) ? null : p;
+        }
+
+        private Position absFloor(Object key) {
+            if (tooHigh(key)) {
+                return absHighest();
+            }
+            Position p = m.position(key, FLOOR);
+            return p == null || tooLow(p.key()) ? null : p;
+        }
+
+        private Position absLower(Object key) {
+            if (tooHigh(key)) {
+                return absHighest();
+            }
+            Position p = m.position(key, LOWER);
+            return p == null || tooLow(p.key()) ? null : p;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map.Entry<K, V> entry(Position p) {
+            return p == null ? null : new SimpleImmutableEntry<>((K) p.key(), (V) p.value());
+        }
+
+        @SuppressWarnings("unchecked")
+        private K key(Position p) {
+            return p == null ? null : (K) p.key();
+        }
+
+        private static <K> K keyOrThrow(K key, Position p) {
+            if (p == null) {
+                throw new NoSuchElementException();
+            }
+            return key;
+        }
+
+        //------------------------------------------------ Map
+
+        //two rank lookups instead of walking the range
+        @Override
+        public int size() {
+            int below = fromStart ? 0 : m.countBelow(lo, !loInclusive);
+            int upTo = toEnd ? m.size : m.countBelow(hi, hiInclusive);
+            return Math.max(0, upTo - below);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return absLowest() == null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key != null && inRange(key) && m.containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return key == null || !inRange(key) ? null : m.get(key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            if (!inRange(key)) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return m.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return key == null || !inRange(key) ? null : m.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            if (fromStart && toEnd) {
+                m.clear();
+                return;
+            }
+            for (Iterator<Map.Entry<K, V>> it = entryIterator(); it.hasNext(); ) {
+                it.next();
+                it.remove();
+            }
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return entryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return SubMap.this.size();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return SubMap.this.isEmpty();
+                }
+
+                @Override
+                public void clear() {
+                    SubMap.this.clear();
+                }
+            };
+        }
+
+        @Override
+        public NavigableSet<K> keySet() {
+            return navigableKeySet();
+        }
+
+        Iterator<Map.Entry<K, V>> entryIterator() {
+            return new EntryIterator<>(this, descending ? absHighest() : absLowest());
+        }
+
+        //------------------------------------------------ NavigableMap, the direction is flipped for descending views
+
+        @Override
+        public Comparator<? super K> comparator() {
+            Comparator<? super K> c = m.comparator;
+            if (!descending) {
+                return c;
+            }
+            return c == null ? Collections.reverseOrder() : Collections.reverseOrder(c);
+        }
+
+        @Override
+        public Map.Entry<K, V> lowerEntry(K key) {
+            return entry(descending ? absHigher(key) : absLower(key));
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return key(descending ? absHigher(key) : absLower(key));
+        }
+
+        @Override
+        public Map.Entry<K, V> floorEntry(K key) {
+            return entry(descending ? absCeiling(key) : absFloor(key));
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return key(descending ? absCeiling(key) : absFloor(key));
+        }
+
+        @Override
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            return entry(descending ? absFloor(key) : absCeiling(key));
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return key(descending ? absFloor(key) : absCeiling(key));
+        }
+
+        @Override
+        public Map.Entry<K, V> higherEntry(K key) {
+            return entry(descending ? absLower(key) : absHigher(key));
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return key(descending ? absLower(key) : absHigher(key));
+        }
+
+        @Override
+        public Map.Entry<K, V> firstEntry() {
+            return entry(descending ? absHighest() : absLowest());
+        }
+
+        @Override
+        public Map.Entry<K, V> lastEntry() {
+            return entry(descending ? absLowest() : absHighest());
+        }
+
+        @Override
+        public K firstKey() {
+            Position p = descending ? absHighest() : absLowest();
+            return keyOrThrow(key(p), p);
+        }
+
+        @Override
+        public K lastKey() {
+            Position p = descending ? absLowest() : absHighest();
+            return keyOrThrow(key(p), p);
+        }
+
+        @Override
+        public Map.Entry<K, V> pollFirstEntry() {
+            Map.Entry<K, V> entry = firstEntry();
+            if (entry != null) {
+                m.remove(entry.getKey());
+            }
+            return entry;
+        }
+
+        @Override
+        public Map.Entry<K, V> pollLastEntry() {
+            Map.Entry<K, V> entry = lastEntry();
+            if (entry != null) {
+                m.remove(entry.getKey());
+            }
+            return entry;
+        }
+
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new SubMap<>(m, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            return new KeySet<>(this);
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            Objects.requireNonNull(fromKey);
+            Objects.requireNonNull(toKey);
+            if (!inRange(fromKey, fromInclusive) || !inRange(toKey, toInclusive)) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            if (descending) {
+                //in a descending view fromKey is the higher key of the map
+                return new SubMap<>(m, false, toKey, toInclusive, false, fromKey, fromInclusive, true);
+            }
+            return new SubMap<>(m, false, fromKey, fromInclusive, false, toKey, toInclusive, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            Objects.requireNonNull(toKey);
+            if (!inRange(toKey, inclusive)) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            if (descending) {
+                return new SubMap<>(m, false, toKey, inclusive, toEnd, hi, hiInclusive, true);
+            }
+            return new SubMap<>(m, fromStart, lo, loInclusive, false, toKey, inclusive, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            Objects.requireNonNull(fromKey);
+            if (!inRange(fromKey, inclusive)) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            if (descending) {
+                return new SubMap<>(m, fromStart, lo, loInclusive, false, fromKey, inclusive, true);
+            }
+            return new SubMap<>(m, false, fromKey, inclusive, toEnd, hi, hiInclusive, false);
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+    }
+
+    //Walks the leaf arrays from one position to the next (or previous for descending views) until the end of the range
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final SubMap<K, V> view;
+        private Position next;
+        private Object lastKey;
+        private int expectedModCount;
+
+        EntryIterator(SubMap<K, V> view, Position first) {
+            this.view = view;
+            this.next = first;
+            this.expectedModCount = view.m.modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (view.m.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Position current = next;
+            lastKey = current.key();
+            next = view.descending ? previous(current.leaf, current.index) : BTreeMap.next(current.leaf, current.index);
+            if (next != null && (view.descending ? view.tooLow(next.key()) : view.tooHigh(next.key()))) {
+                next = null;
+            }
+            return new IteratorEntry<>(view.m, (K) current.key(), (V) current.value());
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            if (view.m.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            //removing can move entries between leaves, so the next position is looked up again by its key
+            Object nextKey = next == null ? null : next.key();
+            view.m.remove(lastKey);
+            lastKey = null;
+            expectedModCount = view.m.modCount;
+            if (nextKey != null) {
+                next = view.m.position(nextKey, CEILING);
+            }
+        }
+    }
+
+    //entry returned by the iterators, setValue() writes through to the map
+    private static final class IteratorEntry<K, V> extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final BTreeMap<K, V> m;
+
+        IteratorEntry(BTreeMap<K, V> m, K key, V value) {
+            super(key, value);
+            this.m = m;
+        }
+
+        @Override
+        public V setValue(V value) {
+            Leaf leaf = m.findLeaf(getKey());
+            int index = m.search(leaf, getKey());
+            if (index < 0) {
+                throw new IllegalStateException("entry was removed from the map");
+            }
+            leaf.values[index] = value;
+            return super.setValue(value);
+        }
+    }
+
+    //NavigableSet of the keys of a NavigableMap (the map itself or one of its views), backed by that map
+    private static final class KeySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+        private final NavigableMap<E, ?> m;
+
+        KeySet(NavigableMap<E, ?> m) {
+            this.m = m;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            Iterator<? extends Map.Entry<E, ?>> entries = m.entrySet().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    return entries.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    entries.remove();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return m.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return m.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return m.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!m.containsKey(o)) {
+                return false;
+            }
+            m.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            m.clear();
+        }
+
+        @Override
+        public E lower(E e) {
+            return m.lowerKey(e);
+        }
+
+        @Override
+        public E floor(E e) {
+            return m.floorKey(e);
+        }
+
+        @Override
+        public E ceiling(E e) {
+            return m.ceilingKey(e);
+        }
+
+        @Override
+        public E higher(E e) {
+            return m.higherKey(e);
+        }
+
+        @Override
+        public E pollFirst() {
+            Map.Entry<E, ?> e = m.pollFirstEntry();
+            return e == null ? null : e.getKey();
+        }
+
+        @Override
+        public E pollLast() {
+            Map.Entry<E, ?> e = m.pollLastEntry();
+            return e == null ? null : e.getKey();
+        }
+
+        @Override
+        public E first() {
+            return m.firstKey();
+        }
+
+        @Override
+        public E last() {
+            return m.lastKey();
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return m.comparator();
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return new KeySet<>(m.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            return new KeySet<>(m.subMap(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return new KeySet<>(m.headMap(toElement, inclusive));
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return new KeySet<>(m.tailMap(fromElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+}
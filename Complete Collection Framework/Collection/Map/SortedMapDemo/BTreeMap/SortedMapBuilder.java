@@ -0,0 +1,230 @@
+package Collection.Map.SortedMapDemo.BTreeMap;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+
+//Filling a TreeMap (or a BTreeMap) with put() costs O(log n) per entry plus rebalancing, even when the data
+//already comes sorted (a sorted file, a database index, another sorted map)
+//SortedMapBuilder collects the entries first and builds the BTreeMap bottom up in one pass (see BTreeMap.buildFromSorted):
+//1. while entries are added, every key is compared only with the previous key to detect whether the input is sorted
+//2. sorted input is built in O(n), unsorted input is sorted once first (O(n log n), but still no rebalancing)
+//3. if the same key is added twice the last value wins, like put()
+//merge() combines two sorted maps in O(n + m) by walking both of them side by side, like the merge step of merge sort
+public class SortedMapBuilder<K, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Comparator<? super K> comparator;
+    private Object[] keys;
+    private Object[] values;
+    private int size;
+    private boolean sorted = true;
+
+    public SortedMapBuilder() {
+        this(null, DEFAULT_CAPACITY);
+    }
+
+    public SortedMapBuilder(Comparator<? super K> comparator) {
+        this(comparator, DEFAULT_CAPACITY);
+    }
+
+    //expectedSize avoids growing the arrays when the number of records is known up front
+    public SortedMapBuilder(Comparator<? super K> comparator, int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize cannot be negative: " + expectedSize);
+        }
+        this.comparator = comparator;
+        this.keys = new Object[Math.max(1, expectedSize)];
+        this.values = new Object[Math.max(1, expectedSize)];
+    }
+
+    public static void main(String[] args) {
+        //same data as TreeMapDemo, added in key order
+        SortedMapBuilder<String, Integer> builder = new SortedMapBuilder<>();
+        builder.put("Alice", 90).put("Bob", 80).put("Charlie", 70).put("David", 60);
+        BTreeMap<String, Integer> studentMarks = builder.build();
+        System.out.println(studentMarks);//{Alice=90, Bob=80, Charlie=70, David=60}
+
+        TreeMap<String, Integer> retest = new TreeMap<>();
+        retest.put("Bob", 85);
+        retest.put("Eve", 75);
+        //keep the better mark of the two
+        System.out.println(merge(studentMarks, retest, Math::max));//{Alice=90, Bob=85, Charlie=70, David=60, Eve=75}
+
+        //loading sorted records : TreeMap.put() one by one vs building bottom up
+        //the keys are boxed up front so that only the map building is measured
+        //run it with a large fixed heap (for example -Xms1g -Xmx1g) so that heap resizing does not hide the difference
+        int records = 2_000_000;
+        Integer[] ids = new Integer[records];
+        for (int i = 0; i < records; i++) {
+            ids[i] = i;
+        }
+        long start = System.nanoTime();
+        TreeMap<Integer, Integer> byPut = new TreeMap<>();
+        for (Integer id : ids) {
+            byPut.put(id, id);
+        }
+        System.out.println("TreeMap.put() one by one : " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        start = System.nanoTime();
+        SortedMapBuilder<Integer, Integer> bulk = new SortedMapBuilder<>(null, records);
+        for (Integer id : ids) {
+            bulk.put(id, id);
+        }
+        BTreeMap<Integer, Integer> built = bulk.build();
+        System.out.println("SortedMapBuilder.build() : " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        System.out.println(built.equals(byPut));//true
+    }
+
+    public SortedMapBuilder<K, V> put(K key, V value) {
+        Objects.requireNonNull(key);
+        if (size > 0 && sorted) {
+            int cmp = compare(keys[size - 1], key);
+            if (cmp == 0) {
+                values[size - 1] = value;
+                return this;
+            }
+            if (cmp > 0) {
+                sorted = false;
+            }
+        } else if (size == 0 && comparator == null) {
+            //fail fast for keys that are not Comparable
+            compare(key, key);
+        }
+        if (size == keys.length) {
+            int newLength = keys.length + (keys.length >> 1) + 1;
+            keys = Arrays.copyOf(keys, newLength);
+            values = Arrays.copyOf(values, newLength);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        return this;
+    }
+
+    public SortedMapBuilder<K, V> putAll(Map<? extends K, ? extends V> map) {
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+        return this;
+    }
+
+    //number of entries added so far (duplicates of the previous key are not counted)
+    public int size() {
+        return size;
+    }
+
+    //builds a new BTreeMap from the entries added so far, the builder can still be used afterwards
+    public BTreeMap<K, V> build() {
+        BTreeMap<K, V> map = new BTreeMap<>(comparator);
+        if (sorted) {
+            map.buildFromSorted(size, new ArrayEntryIterator<>(keys, values, size));
+            return map;
+        }
+        //List.sort is a stable merge sort, so for equal keys the entry added last is still last after sorting
+        List<Map.Entry<K, V>> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(key(i), value(i)));
+        }
+        entries.sort((a, b) -> compare(a.getKey(), b.getKey()));
+        int unique = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            if (unique > 0 && compare(entries.get(unique - 1).getKey(), entries.get(i).getKey()) == 0) {
+                entries.set(unique - 1, entries.get(i));
+            } else {
+                entries.set(unique++, entries.get(i));
+            }
+        }
+        map.buildFromSorted(unique, entries.iterator());
+        return map;
+    }
+
+    //merges two maps with the same ordering into a new BTreeMap in O(n + m)
+    //for a key that is in both maps the value is mergeFunction(value in first, value in second)
+    public static <K, V> BTreeMap<K, V> merge(SortedMap<K, ? extends V> first, SortedMap<K, ? extends V> second,
+                                              BinaryOperator<V> mergeFunction) {
+        Comparator<? super K> comparator = first.comparator();
+        if (!Objects.equals(comparator, second.comparator())) {
+            throw new IllegalArgumentException("both maps must use the same ordering");
+        }
+        SortedMapBuilder<K, V> builder = new SortedMapBuilder<>(comparator, first.size() + second.size());
+        Iterator<? extends Map.Entry<K, ? extends V>> a = first.entrySet().iterator();
+        Iterator<? extends Map.Entry<K, ? extends V>> b = second.entrySet().iterator();
+        Map.Entry<K, ? extends V> x = a.hasNext() ? a.next() : null;
+        Map.Entry<K, ? extends V> y = b.hasNext() ? b.next() : null;
+        while (x != null && y != null) {
+            int cmp = builder.compare(x.getKey(), y.getKey());
+            if (cmp < 0) {
+                builder.put(x.getKey(), x.getValue());
+                x = a.hasNext() ? a.next() : null;
+            } else if (cmp > 0) {
+                builder.put(y.getKey(), y.getValue());
+                y = b.hasNext() ? b.next() : null;
+            } else {
+                builder.put(x.getKey(), mergeFunction.apply(x.getValue(), y.getValue()));
+                x = a.hasNext() ? a.next() : null;
+                y = b.hasNext() ? b.next() : null;
+            }
+        }
+        for (; x != null; x = a.hasNext() ? a.next() : null) {
+            builder.put(x.getKey(), x.getValue());
+        }
+        for (; y != null; y = b.hasNext() ? b.next() : null) {
+            builder.put(y.getKey(), y.getValue());
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object a, Object b) {
+        return comparator == null ? ((Comparable<Object>) a).compareTo(b) : comparator.compare((K) a, (K) b);
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(int index) {
+        return (K) keys[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int index) {
+        return (V) values[index];
+    }
+
+    //hands the collected arrays to buildFromSorted as entries, without copying them into a list first
+    private static class ArrayEntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Object[] keys;
+        private final Object[] values;
+        private final int size;
+        private int index;
+
+        ArrayEntryIterator(Object[] keys, Object[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>((K) keys[index], (V) values[index]);
+            index++;
+            return entry;
+        }
+    }
+}
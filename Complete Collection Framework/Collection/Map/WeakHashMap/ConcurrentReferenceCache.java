@@ -0,0 +1,259 @@
+package Collection.Map.WeakHashMap;
+
+import Collection.Map.ReferenceReaper;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+//WeakHashMap has three problems when it is used as a cache:
+//1. it is not thread safe
+//2. the KEYS are weak, but for a cache we want the VALUES to go away when memory is needed
+//   (the key "image1" is a String that is usually still referenced somewhere, so the entry never goes away)
+//3. entries whose key was collected are only removed when the map is touched again
+//ConcurrentReferenceCache keeps strong keys and weak or soft values in a ConcurrentHashMap
+//- WEAK values : cleared as soon as nothing else references the value
+//- SOFT values : cleared only when the JVM is running out of memory (better for a cache)
+//Every value reference is registered with a ReferenceQueue, the GC puts the reference in the queue when it clears it
+//Writes (and reads that find a cleared value) drain the queue in small batches and remove those entries,
+//only one thread drains at a time and the others just carry on
+//With a ReferenceReaper the entries are removed by the reaper thread right after the GC clears the values,
+//so the map does not keep dead entries around until the next write
+public class ConcurrentReferenceCache<K, V> {
+    //how many cleared references one thread removes per operation, keeps every operation short
+    private static final int DRAIN_BATCH_SIZE = 64;
+
+    public enum Strength {
+        WEAK, SOFT
+    }
+
+    private final ConcurrentHashMap<K, ValueReference<K, V>> map = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> queue;
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final Strength strength;
+    //null when this cache drains its own queue
+    private final ReferenceReaper reaper;
+    private final ReferenceReaper.ReapListener reapListener = this::removeCleared;
+
+    public ConcurrentReferenceCache(Strength strength) {
+        this.strength = strength;
+        this.reaper = null;
+        this.queue = new ReferenceQueue<>();
+    }
+
+    //cleared values are removed by the reaper thread instead of by the threads using the cache
+    public ConcurrentReferenceCache(Strength strength, ReferenceReaper reaper) {
+        this.strength = strength;
+        this.reaper = reaper;
+        this.queue = reaper.queue();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        //image cache shared by rendering threads, images are dropped when the heap gets tight
+        ConcurrentReferenceCache<String, Image> imageCache = new ConcurrentReferenceCache<>(Strength.WEAK);
+        //with ReferenceReaper.shared() the cleanUp() call below would not be needed
+        Runnable renderer = () -> {
+            for (int frame = 0; frame < 1000; frame++) {
+                Image image = imageCache.computeIfAbsent("image" + (frame % 10), Image::new);
+                //... draw the image ...
+            }
+        };
+        Thread renderer1 = new Thread(renderer);
+        Thread renderer2 = new Thread(renderer);
+        renderer1.start();
+        renderer2.start();
+        renderer1.join();
+        renderer2.join();
+        System.out.println("Cached images: " + imageCache.size());
+
+        //nobody holds on to the images any more, so weak values can be collected
+        System.gc();
+        Thread.sleep(100);
+        imageCache.cleanUp();
+        System.out.println("Cached images after GC: " + imageCache.size());//most likely 0
+    }
+
+    //only for the demo, stands for a big decoded image
+    private static class Image {
+        final String name;
+
+        Image(String name) {
+            this.name = name;
+        }
+    }
+
+    public V get(K key) {
+        ValueReference<K, V> reference = map.get(key);
+        if (reference == null) {
+            return null;
+        }
+        V value = reference.get();
+        if (value == null) {
+            //the value was collected, remove the entry now instead of waiting for the queue
+            map.remove(key, reference);
+            drainQueue();
+        }
+        return value;
+    }
+
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        drainQueue();
+        ValueReference<K, V> old = map.put(key, newReference(key, value));
+        return old == null ? null : old.get();
+    }
+
+    //returns the cached value, or loads, caches and returns a new one if there is none (or it was collected)
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        drainQueue();
+        //the value is kept in a local variable (strong reference) so it cannot be collected before we return it
+        Object[] loaded = new Object[1];
+        map.compute(key, (k, reference) -> {
+            V current = reference == null ? null : reference.get();
+            if (current != null) {
+                loaded[0] = current;
+                return reference;
+            }
+            V newValue = loader.apply(k);
+            loaded[0] = newValue;
+            return newValue == null ? null : newReference(k, newValue);
+        });
+        @SuppressWarnings("unchecked")
+        V result = (V) loaded[0];
+        return result;
+    }
+
+    public V remove(K key) {
+        ValueReference<K, V> old = map.remove(key);
+        drainQueue();
+        return old == null ? null : old.get();
+    }
+
+    //number of entries, including entries whose value was collected but that were not removed yet
+    public int size() {
+        return map.size();
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    //removes every entry whose value was already collected
+    public void cleanUp() {
+        if (reaper != null) {
+            //the queue belongs to the reaper, it removes our entries in the background
+            return;
+        }
+        drainLock.lock();
+        try {
+            Reference<?> reference;
+            while ((reference = queue.poll()) != null) {
+                removeEntry(reference);
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void drainQueue() {
+        if (reaper != null) {
+            reaper.helpIfBehind();
+            return;
+        }
+        //if another thread is already draining, this thread does not wait for it
+        if (!drainLock.tryLock()) {
+            return;
+        }
+        try {
+            for (int i = 0; i < DRAIN_BATCH_SIZE; i++) {
+                Reference<?> reference = queue.poll();
+                if (reference == null) {
+                    return;
+                }
+                removeEntry(reference);
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeEntry(Object reference) {
+        ValueReference<K, V> valueReference = (ValueReference<K, V>) reference;
+        //remove only if the key is still mapped to this reference, it may have been replaced by a new value
+        map.remove(valueReference.key(), valueReference);
+    }
+
+    //called by the reaper thread with a batch of our references whose values were collected
+    private void removeCleared(List<ReferenceReaper.Reapable> references) {
+        for (ReferenceReaper.Reapable reference : references) {
+            removeEntry(reference);
+        }
+    }
+
+    private ValueReference<K, V> newReference(K key, V value) {
+        return strength == Strength.WEAK
+                ? new WeakValueReference<>(key, value, queue, reapListener)
+                : new SoftValueReference<>(key, value, queue, reapListener);
+    }
+
+    private interface ValueReference<K, V> extends ReferenceReaper.Reapable {
+        K key();
+
+        V get();
+    }
+
+    //the reference remembers its key, so that the entry can be found when the reference comes out of the queue
+    private static class WeakValueReference<K, V> extends WeakReference<V> implements ValueReference<K, V> {
+        private final K key;
+        private final ReferenceReaper.ReapListener listener;
+
+        WeakValueReference(K key, V value, ReferenceQueue<Object> queue, ReferenceReaper.ReapListener listener) {
+            super(value, queue);
+            this.key = key;
+            this.listener = listener;
+        }
+
+        @Override
+        public K key() {
+            return key;
+        }
+
+        @Override
+        public ReferenceReaper.ReapListener reapListener() {
+            return listener;
+        }
+    }
+
+    private static class SoftValueReference<K, V> extends SoftReference<V> implements ValueReference<K, V> {
+        private final K key;
+        private final ReferenceReaper.ReapListener listener;
+
+        SoftValueReference(K key, V value, ReferenceQueue<Object> queue, ReferenceReaper.ReapListener listener) {
+            super(value, queue);
+            this.key = key;
+            this.listener = listener;
+        }
+
+        @Override
+        public K key() {
+            return key;
+        }
+
+        @Override
+        public ReferenceReaper.ReapListener reapListener() {
+            return listener;
+        }
+    }
+}